@@ -2,7 +2,7 @@ package com.chessbot;
 
 import java.util.Arrays;
 
-public class Board {
+public final class Board {
     private static final String RESET = "\u001B[0m";
     private static final String BG_LIGHT = bg(240, 217, 181);
     private static final String BG_DARK = bg(181, 136, 99);
@@ -11,15 +11,149 @@ public class Board {
     private static final String startFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
 
     public int[] squares;
+    // Bitboards tenus à jour en même temps que squares
+    public long[] pieceBitboards; // Un par pièce, voir Piece.getBitboardIndex
+    public long[] colorBitboards; // Blancs, noirs
+    public long allPiecesBitboard;
+    // Listes de cases par pièce (même index que pieceBitboards) et cases des rois, -1 si absent
+    public PieceList[] pieceLists;
+    public int[] kingSquares; // Blanc, noir
+    // Évaluation incrémentale (matériel et tables pièce-case, blancs moins noirs), voir PieceSquareTables
+    public int middlegameScore;
+    public int endgameScore;
+    public int phase;
     private boolean useUnicode;
 
     public Board(boolean useUnicode) {
         this.useUnicode = useUnicode;
         squares = new int[64];
+        pieceBitboards = new long[12];
+        colorBitboards = new long[2];
+        pieceLists = new PieceList[12];
+        for (int i = 0; i < pieceLists.length; i++) {
+            pieceLists[i] = new PieceList(16); // Au plus 16 pièces par couleur
+        }
+        kingSquares = new int[2];
         Arrays.fill(squares, Piece.NONE); // Initialiser toutes les cases
         loadPositionFromFEN(startFEN);
     }
 
+    public long getPieces(int pieceType, int color) {
+        return pieceBitboards[Piece.getBitboardIndex(pieceType | color)];
+    }
+
+    public long getColorPieces(int color) {
+        return colorBitboards[Piece.getColorIndex(color)];
+    }
+
+    public PieceList getPieceList(int pieceType, int color) {
+        return pieceLists[Piece.getBitboardIndex(pieceType | color)];
+    }
+
+    public int getKingSquare(int color) {
+        return kingSquares[Piece.getColorIndex(color)];
+    }
+
+    // Pièces des deux couleurs qui attaquent square, pour une occupation donnée (rayons X compris)
+    public long getAttackersTo(int square, long occupancy) {
+        long queens = getPieces(Piece.QUEEN, Piece.WHITE) | getPieces(Piece.QUEEN, Piece.BLACK);
+        return (MoveGenerator.getPawnAttacks(square, Piece.BLACK) & getPieces(Piece.PAWN, Piece.WHITE))
+                | (MoveGenerator.getPawnAttacks(square, Piece.WHITE) & getPieces(Piece.PAWN, Piece.BLACK))
+                | (MoveGenerator.getKnightAttacks(square)
+                        & (getPieces(Piece.KNIGHT, Piece.WHITE) | getPieces(Piece.KNIGHT, Piece.BLACK)))
+                | (MoveGenerator.getKingAttacks(square)
+                        & (getPieces(Piece.KING, Piece.WHITE) | getPieces(Piece.KING, Piece.BLACK)))
+                | (MoveGenerator.getRookAttacks(square, occupancy)
+                        & (getPieces(Piece.ROOK, Piece.WHITE) | getPieces(Piece.ROOK, Piece.BLACK) | queens))
+                | (MoveGenerator.getBishopAttacks(square, occupancy)
+                        & (getPieces(Piece.BISHOP, Piece.WHITE) | getPieces(Piece.BISHOP, Piece.BLACK) | queens));
+    }
+
+    public void addPiece(int square, int piece) {
+        long bit = 1L << square;
+        int index = Piece.getBitboardIndex(piece);
+        squares[square] = piece;
+        pieceBitboards[index] |= bit;
+        colorBitboards[Piece.getColorIndex(piece)] |= bit;
+        allPiecesBitboard |= bit;
+        pieceLists[index].addPiece(square);
+        middlegameScore += PieceSquareTables.middlegame[index][square];
+        endgameScore += PieceSquareTables.endgame[index][square];
+        phase += PieceSquareTables.phaseWeights[index];
+        if (Piece.isType(piece, Piece.KING)) {
+            kingSquares[Piece.getColorIndex(piece)] = square;
+        }
+    }
+
+    public void removePiece(int square) {
+        int piece = squares[square];
+        if (piece == Piece.NONE) {
+            return;
+        }
+        long bit = 1L << square;
+        int index = Piece.getBitboardIndex(piece);
+        squares[square] = Piece.NONE;
+        pieceBitboards[index] &= ~bit;
+        colorBitboards[Piece.getColorIndex(piece)] &= ~bit;
+        allPiecesBitboard &= ~bit;
+        pieceLists[index].removePiece(square);
+        middlegameScore -= PieceSquareTables.middlegame[index][square];
+        endgameScore -= PieceSquareTables.endgame[index][square];
+        phase -= PieceSquareTables.phaseWeights[index];
+        if (Piece.isType(piece, Piece.KING)) {
+            kingSquares[Piece.getColorIndex(piece)] = -1;
+        }
+    }
+
+    // Déplace une pièce vers une case vide
+    public void movePiece(int from, int to) {
+        int piece = squares[from];
+        long fromTo = (1L << from) | (1L << to);
+        int index = Piece.getBitboardIndex(piece);
+        squares[to] = piece;
+        squares[from] = Piece.NONE;
+        pieceBitboards[index] ^= fromTo;
+        colorBitboards[Piece.getColorIndex(piece)] ^= fromTo;
+        allPiecesBitboard ^= fromTo;
+        pieceLists[index].movePiece(from, to);
+        middlegameScore += PieceSquareTables.middlegame[index][to] - PieceSquareTables.middlegame[index][from];
+        endgameScore += PieceSquareTables.endgame[index][to] - PieceSquareTables.endgame[index][from];
+        if (Piece.isType(piece, Piece.KING)) {
+            kingSquares[Piece.getColorIndex(piece)] = to;
+        }
+    }
+
+    // Copie indépendante, par exemple pour chercher dans un autre thread
+    public Board copy() {
+        Board copy = new Board(useUnicode);
+        System.arraycopy(squares, 0, copy.squares, 0, 64);
+        System.arraycopy(pieceBitboards, 0, copy.pieceBitboards, 0, 12);
+        System.arraycopy(colorBitboards, 0, copy.colorBitboards, 0, 2);
+        copy.allPiecesBitboard = allPiecesBitboard;
+        for (int i = 0; i < pieceLists.length; i++) {
+            copy.pieceLists[i].copyFrom(pieceLists[i]);
+        }
+        System.arraycopy(kingSquares, 0, copy.kingSquares, 0, 2);
+        copy.middlegameScore = middlegameScore;
+        copy.endgameScore = endgameScore;
+        copy.phase = phase;
+        return copy;
+    }
+
+    private void clear() {
+        Arrays.fill(squares, Piece.NONE);
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        allPiecesBitboard = 0L;
+        for (PieceList pieceList : pieceLists) {
+            pieceList.clear();
+        }
+        Arrays.fill(kingSquares, -1);
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+    }
+
     private static String fg(int r, int g, int b) {
         return "\u001B[38;2;" + r + ";" + g + ";" + b + "m";
     }
@@ -62,6 +196,7 @@ public class Board {
     public void loadPositionFromFEN(String fen) {
         String fenBoard = fen.split(" ")[0];
         int file = 0, rank = 7;
+        clear();
 
         for (int i = 0; i < fenBoard.length(); i++) {
             char symbol = fenBoard.charAt(i);
@@ -74,7 +209,7 @@ public class Board {
                 } else {
                     int pieceColor = Character.isUpperCase(symbol) ? Piece.WHITE : Piece.BLACK;
                     int pieceType = Piece.symbolToPiece(Character.toLowerCase(symbol));
-                    squares[rank * 8 + file] = pieceType | pieceColor;
+                    addPiece(rank * 8 + file, pieceType | pieceColor);
                     file++;
                 }
             }
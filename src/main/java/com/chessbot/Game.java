@@ -1,19 +1,96 @@
 package com.chessbot;
 
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Game {
+    // Droits de roque
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    // Droits conservés quand une pièce quitte ou atteint une case (roi ou tour de départ)
+    private static final int[] castlingRightsMask = new int[64];
+
+    static {
+        Arrays.fill(castlingRightsMask, 0b1111);
+        castlingRightsMask[0] &= ~WHITE_QUEENSIDE;
+        castlingRightsMask[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        castlingRightsMask[7] &= ~WHITE_KINGSIDE;
+        castlingRightsMask[56] &= ~BLACK_QUEENSIDE;
+        castlingRightsMask[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        castlingRightsMask[63] &= ~BLACK_KINGSIDE;
+    }
+
     public Board board;
     public int colorToMove;
+    public int castlingRights;
+    public int enPassantSquare; // Case de prise en passant, -1 si aucune
+    public int halfmoveClock; // Demi-coups depuis la dernière capture ou le dernier coup de pion
+    public int fullmoveNumber;
+    public long zobristKey; // Clé de la position, mise à jour à chaque coup
     private boolean botPlaysWhite;
     private MoveGenerator moveGenerator;
+    private int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+
+    // Pile d'annulation : un int par coup joué (pièce capturée, roques, en passant, demi-coups)
+    private int[] undoStack = new int[256];
+    private long[] keyHistory = new long[256]; // Clé avant chaque coup joué
+    private int undoCount;
 
     public Game(boolean useUnicode, boolean botPlaysWhite) {
         board = new Board(useUnicode);
         colorToMove = Piece.WHITE;
+        castlingRights = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+        enPassantSquare = -1;
+        fullmoveNumber = 1;
         this.botPlaysWhite = botPlaysWhite;
         moveGenerator = new MoveGenerator();
+        zobristKey = Zobrist.calculateKey(board, colorToMove, castlingRights, enPassantSquare);
+    }
+
+    public void loadPositionFromFEN(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        board.loadPositionFromFEN(fields[0]);
+
+        colorToMove = fields.length > 1 && fields[1].equals("b") ? Piece.BLACK : Piece.WHITE;
+
+        castlingRights = 0;
+        String castling = fields.length > 2 ? fields[2] : "-";
+        if (castling.indexOf('K') >= 0)
+            castlingRights |= WHITE_KINGSIDE;
+        if (castling.indexOf('Q') >= 0)
+            castlingRights |= WHITE_QUEENSIDE;
+        if (castling.indexOf('k') >= 0)
+            castlingRights |= BLACK_KINGSIDE;
+        if (castling.indexOf('q') >= 0)
+            castlingRights |= BLACK_QUEENSIDE;
+
+        enPassantSquare = -1;
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            enPassantSquare = (fields[3].charAt(1) - '1') * 8 + (fields[3].charAt(0) - 'a');
+        }
+
+        halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+        fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        undoCount = 0;
+        zobristKey = Zobrist.calculateKey(this);
+    }
+
+    // Copie indépendante de la partie, historique compris
+    public Game copy() {
+        Game copy = new Game(false, botPlaysWhite);
+        copy.board = board.copy();
+        copy.colorToMove = colorToMove;
+        copy.castlingRights = castlingRights;
+        copy.enPassantSquare = enPassantSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.zobristKey = zobristKey;
+        copy.undoStack = undoStack.clone();
+        copy.keyHistory = keyHistory.clone();
+        copy.undoCount = undoCount;
+        return copy;
     }
 
     public boolean makeMove(String moveString) {
@@ -22,18 +99,127 @@ public class Game {
             return false;
         }
 
-        if (isLegalMove(move)) {
-            executeMove(move);
-            // colorToMove = (colorToMove == Piece.WHITE) ? Piece.BLACK : Piece.WHITE;
-            colorToMove = Piece.getOpponentColor(colorToMove); // Correction
+        int legalMove = findLegalMove(move);
+        if (legalMove != Move.NULL_MOVE) {
+            makeMove(legalMove);
             return true;
         }
 
         return false;
     }
 
+    // Joue un coup déjà validé (pseudo-légal) et passe la main à l'adversaire
+    public void makeMove(int move) {
+        int startSquare = Move.getStartingSquare(move);
+        int targetSquare = Move.getTarget(move);
+        int flag = Move.getFlag(move);
+        int movedPiece = board.squares[startSquare];
+
+        int capturedSquare = flag == Move.EN_PASSANT_CAPTURE
+                ? targetSquare + (colorToMove == Piece.WHITE ? -8 : 8)
+                : targetSquare;
+        int capturedPiece = board.squares[capturedSquare];
+
+        // Sauvegarde de l'état irréversible
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+            keyHistory = Arrays.copyOf(keyHistory, keyHistory.length * 2);
+        }
+        keyHistory[undoCount] = zobristKey;
+        undoStack[undoCount++] = capturedPiece
+                | (castlingRights << 5)
+                | ((enPassantSquare + 1) << 9)
+                | (halfmoveClock << 16);
+
+        // Retire de la clé les droits de roque et la colonne en passant actuels
+        long key = zobristKey ^ Zobrist.castlingKeys[castlingRights];
+        if (enPassantSquare != -1) {
+            key ^= Zobrist.enPassantFileKeys[enPassantSquare % 8];
+        }
+
+        if (capturedPiece != Piece.NONE) {
+            board.removePiece(capturedSquare);
+            key ^= Zobrist.getPieceKey(capturedPiece, capturedSquare);
+        }
+        board.movePiece(startSquare, targetSquare);
+        key ^= Zobrist.getPieceKey(movedPiece, startSquare) ^ Zobrist.getPieceKey(movedPiece, targetSquare);
+
+        if (Move.isPromotion(move)) {
+            int promotedPiece = Move.getPromotionPieceType(move) | colorToMove;
+            board.removePiece(targetSquare);
+            board.addPiece(targetSquare, promotedPiece);
+            key ^= Zobrist.getPieceKey(movedPiece, targetSquare) ^ Zobrist.getPieceKey(promotedPiece, targetSquare);
+        } else if (flag == Move.CASTLING) {
+            boolean kingside = targetSquare % 8 == 6;
+            int rookStart = kingside ? targetSquare + 1 : targetSquare - 2;
+            int rookTarget = kingside ? targetSquare - 1 : targetSquare + 1;
+            int rook = Piece.ROOK | colorToMove;
+            board.movePiece(rookStart, rookTarget);
+            key ^= Zobrist.getPieceKey(rook, rookStart) ^ Zobrist.getPieceKey(rook, rookTarget);
+        }
+
+        castlingRights &= castlingRightsMask[startSquare] & castlingRightsMask[targetSquare];
+        enPassantSquare = flag == Move.PAWN_TWO_FORWARD ? (startSquare + targetSquare) / 2 : -1;
+
+        key ^= Zobrist.castlingKeys[castlingRights] ^ Zobrist.sideToMoveKey;
+        if (enPassantSquare != -1) {
+            key ^= Zobrist.enPassantFileKeys[enPassantSquare % 8];
+        }
+        zobristKey = key;
+
+        if (Piece.isType(movedPiece, Piece.PAWN) || capturedPiece != Piece.NONE) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+
+        if (colorToMove == Piece.BLACK) {
+            fullmoveNumber++;
+        }
+        colorToMove = Piece.getOpponentColor(colorToMove);
+    }
+
+    // Annule le dernier coup joué avec makeMove(int)
+    public void unmakeMove(int move) {
+        int startSquare = Move.getStartingSquare(move);
+        int targetSquare = Move.getTarget(move);
+        int flag = Move.getFlag(move);
+
+        colorToMove = Piece.getOpponentColor(colorToMove);
+        if (colorToMove == Piece.BLACK) {
+            fullmoveNumber--;
+        }
+
+        int state = undoStack[--undoCount];
+        int capturedPiece = state & 0b11111;
+
+        if (Move.isPromotion(move)) {
+            board.removePiece(targetSquare);
+            board.addPiece(targetSquare, Piece.PAWN | colorToMove);
+        } else if (flag == Move.CASTLING) {
+            boolean kingside = targetSquare % 8 == 6;
+            int rookStart = kingside ? targetSquare + 1 : targetSquare - 2;
+            int rookTarget = kingside ? targetSquare - 1 : targetSquare + 1;
+            board.movePiece(rookTarget, rookStart);
+        }
+
+        board.movePiece(targetSquare, startSquare);
+
+        if (capturedPiece != Piece.NONE) {
+            int capturedSquare = flag == Move.EN_PASSANT_CAPTURE
+                    ? targetSquare + (colorToMove == Piece.WHITE ? -8 : 8)
+                    : targetSquare;
+            board.addPiece(capturedSquare, capturedPiece);
+        }
+
+        castlingRights = (state >>> 5) & 0b1111;
+        enPassantSquare = ((state >>> 9) & 0b1111111) - 1;
+        halfmoveClock = state >>> 16;
+        zobristKey = keyHistory[undoCount];
+    }
+
     private Move parseMove(String moveString) {
-        if (moveString.length() != 4) {
+        if (moveString.length() != 4 && moveString.length() != 5) {
             return null;
         }
 
@@ -51,84 +237,69 @@ public class Game {
             int fromSquare = fromRank * 8 + fromFile;
             int toSquare = toRank * 8 + toFile;
 
-            return new Move(fromSquare, toSquare);
+            // Promotion éventuelle : e7e8q
+            int flag = Move.NO_FLAG;
+            if (moveString.length() == 5) {
+                flag = Move.promotionFlag(Piece.symbolToPiece(Character.toLowerCase(moveString.charAt(4))));
+                if (flag == Move.NO_FLAG) {
+                    return null;
+                }
+            }
+
+            return new Move(fromSquare, toSquare, flag);
         } catch (Exception e) {
             return null;
         }
     }
 
-    private boolean isLegalMove(Move move) {
+    // Renvoie le coup légal correspondant (avec ses drapeaux), ou NULL_MOVE
+    private int findLegalMove(Move move) {
         // Vérifier qu'il y a une pièce sur la case de départ
         int piece = board.squares[move.startingSquare];
         if (piece == Piece.NONE) {
-            return false;
+            return Move.NULL_MOVE;
         }
 
         // Vérifier que c'est une pièce de la bonne couleur
         if (Piece.getColor(piece) != colorToMove) {
-            return false;
+            return Move.NULL_MOVE;
         }
 
-        // Générer tous les coups pseudo-légaux
-        List<Move> pseudoLegalMoves = moveGenerator.generateMoves(this);
-
-        // Vérifier si le coup est dans la liste des coups pseudo-légaux
-        boolean isPseudoLegal = false;
-        for (Move pseudoLegalMove : pseudoLegalMoves) {
-            if (pseudoLegalMove.startingSquare == move.startingSquare &&
-                    pseudoLegalMove.target == move.target) {
-                isPseudoLegal = true;
-                break;
+        // Générer tous les coups légaux
+        int count = moveGenerator.generateMoves(this, moveBuffer);
+
+        // Chercher le coup dans la liste des coups légaux (promotion en dame par défaut)
+        int requestedFlag = move.flag != Move.NO_FLAG ? move.flag : Move.PROMOTE_TO_QUEEN;
+        for (int i = 0; i < count; i++) {
+            int legalMove = moveBuffer[i];
+            if (Move.getStartingSquare(legalMove) == move.startingSquare &&
+                    Move.getTarget(legalMove) == move.target &&
+                    (!Move.isPromotion(legalMove) || Move.getFlag(legalMove) == requestedFlag)) {
+                return legalMove;
             }
         }
 
-        if (!isPseudoLegal) {
-            return false;
-        }
-
-        // Vérifier que le coup ne laisse pas le roi en échec
-        return !wouldLeaveKingInCheck(move);
+        return Move.NULL_MOVE;
     }
 
     public boolean wouldLeaveKingInCheck(Move move) {
-        // Sauvegarde de l'état
-        int originalPiece = board.squares[move.startingSquare];
-        int capturedPiece = board.squares[move.target];
-        int originalColor = colorToMove;
+        return wouldLeaveKingInCheck(move.encode());
+    }
 
-        // Exécute temporairement le coup
-        board.squares[move.target] = originalPiece;
-        board.squares[move.startingSquare] = Piece.NONE;
-        colorToMove = Piece.getOpponentColor(originalColor); // Tour suivant
+    public boolean wouldLeaveKingInCheck(int move) {
+        int originalColor = colorToMove;
 
+        makeMove(move);
         // Vérifie si le roi (du joueur ayant joué le coup) est en échec
-        boolean kingInCheck = isInCheck(originalColor); // Utiliser originalColor
-
-        // Restauration
-        board.squares[move.startingSquare] = originalPiece;
-        board.squares[move.target] = capturedPiece;
-        colorToMove = originalColor;
+        boolean kingInCheck = isInCheck(originalColor);
+        unmakeMove(move);
 
         return kingInCheck;
     }
 
-    private void executeMove(Move move) {
-        int piece = board.squares[move.startingSquare];
-        board.squares[move.target] = piece;
-        board.squares[move.startingSquare] = Piece.NONE;
-    }
-
     public boolean isInCheck(int color) {
-        // Trouver le roi
-        int kingSquare = -1;
-        for (int i = 0; i < 64; i++) {
-            int piece = board.squares[i];
-            if (Piece.getType(piece) == Piece.KING && Piece.getColor(piece) == color) {
-                kingSquare = i;
-                break;
-            }
-        }
-
+        // Case du roi tenue à jour par le plateau
+        int kingSquare = board.getKingSquare(color);
         if (kingSquare == -1)
             return false;
 
@@ -137,72 +308,44 @@ public class Game {
     }
 
     public boolean isSquareAttacked(int square, int attackerColor) {
-        // Vérifier les attaques par les pions
-        int pawnDirection = attackerColor == Piece.WHITE ? -1 : 1;
-        int[] pawnAttacks = { 7, 9 };
-        for (int attack : pawnAttacks) {
-            int pawnSquare = square + pawnDirection * attack;
-            if (pawnSquare >= 0 && pawnSquare < 64) {
-                int piece = board.squares[pawnSquare];
-                if (Piece.getType(piece) == Piece.PAWN && Piece.getColor(piece) == attackerColor) {
-                    return true;
-                }
-            }
-        }
+        return moveGenerator.isSquareAttackedDirectly(board, square, attackerColor);
+    }
 
-        // Vérifier les attaques par les cavaliers
-        int[] knightMoves = { 15, 17, -15, -17, 10, 6, -10, -6 };
-        for (int move : knightMoves) {
-            int knightSquare = square + move;
-            if (knightSquare >= 0 && knightSquare < 64) {
-                int piece = board.squares[knightSquare];
-                if (Piece.getType(piece) == Piece.KNIGHT && Piece.getColor(piece) == attackerColor) {
-                    return true;
-                }
-            }
+    // Plus aucun coup légal (mat ou pat)
+    public boolean isGameOver() {
+        return !moveGenerator.hasLegalMove(this);
+    }
+
+    // Mat, pat et nulles (50 coups, triple répétition, matériel insuffisant) en une seule passe
+    public GameStatus getStatus() {
+        if (!moveGenerator.hasLegalMove(this)) {
+            return moveGenerator.isInCheck() ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (halfmoveClock >= 100 || isRepetition(3) || hasInsufficientMaterial()) {
+            return GameStatus.DRAW;
         }
+        return GameStatus.ONGOING;
+    }
 
-        // Vérifier les attaques en ligne droite
-        int[] directions = { 8, -8, -1, 1, 7, -7, 9, -9 };
-        for (int direction : directions) {
-            for (int i = 1; i < 8; i++) {
-                int targetSquare = square + direction * i;
-                if (targetSquare < 0 || targetSquare >= 64)
-                    break;
-
-                int piece = board.squares[targetSquare];
-                if (piece == Piece.NONE)
-                    continue;
-
-                if (Piece.getColor(piece) == attackerColor) {
-                    int type = Piece.getType(piece);
-
-                    // Vérifier les pièces attaquantes
-                    if (i == 1 && type == Piece.KING)
-                        return true;
-                    if (type == Piece.QUEEN)
-                        return true;
-                    if (type == Piece.ROOK && (direction == 8 || direction == -8 || direction == -1 || direction == 1))
-                        return true;
-                    if (type == Piece.BISHOP
-                            && (direction == 7 || direction == -7 || direction == 9 || direction == -9))
-                        return true;
-                }
-                break; // Une pièce bloque le chemin
+    // La position actuelle est apparue au moins count fois depuis la dernière capture ou le dernier coup de pion
+    public boolean isRepetition(int count) {
+        int occurrences = 1;
+        int oldest = Math.max(0, undoCount - halfmoveClock);
+        // Seules les positions avec le même joueur au trait peuvent être identiques
+        for (int i = undoCount - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == zobristKey && ++occurrences >= count) {
+                return true;
             }
         }
-
         return false;
     }
 
-    public boolean isGameOver() {
-        List<Move> pseudoLegalMoves = moveGenerator.generateMoves(this);
-        List<Move> legalMoves = new ArrayList<>();
-        for (Move move : pseudoLegalMoves) {
-            if (!wouldLeaveKingInCheck(move)) {
-                legalMoves.add(move);
-            }
-        }
-        return legalMoves.isEmpty(); // Retirer tout System.out.println
+    // Rois seuls, ou roi et une seule pièce mineure
+    public boolean hasInsufficientMaterial() {
+        long kings = board.getPieces(Piece.KING, Piece.WHITE) | board.getPieces(Piece.KING, Piece.BLACK);
+        long minors = board.getPieces(Piece.KNIGHT, Piece.WHITE) | board.getPieces(Piece.KNIGHT, Piece.BLACK)
+                | board.getPieces(Piece.BISHOP, Piece.WHITE) | board.getPieces(Piece.BISHOP, Piece.BLACK);
+        // Tout ce qui n'est ni roi ni pièce mineure (pions, tours, dames) suffit à mater
+        return (board.allPiecesBitboard & ~kings & ~minors) == 0 && Long.bitCount(minors) <= 1;
     }
 }
@@ -0,0 +1,10 @@
+package com.chessbot;
+
+// État d'une partie du point de vue du joueur au trait
+public enum GameStatus {
+    ONGOING, CHECKMATE, STALEMATE, DRAW;
+
+    public boolean isOver() {
+        return this != ONGOING;
+    }
+}
@@ -1,20 +1,107 @@
 package com.chessbot;
 
 public class Move {
+    // Encodage compact dans un int : bits 0-5 case de départ, 6-11 case d'arrivée, 12-15 drapeau
+    public static final int NO_FLAG = 0;
+    public static final int EN_PASSANT_CAPTURE = 1;
+    public static final int CASTLING = 2;
+    public static final int PAWN_TWO_FORWARD = 3;
+    public static final int PROMOTE_TO_QUEEN = 4;
+    public static final int PROMOTE_TO_KNIGHT = 5;
+    public static final int PROMOTE_TO_ROOK = 6;
+    public static final int PROMOTE_TO_BISHOP = 7;
+
+    public static final int NULL_MOVE = 0;
+
+    private static final int SQUARE_MASK = 0b111111;
+
     public final int startingSquare;
     public final int target;
+    public final int flag;
 
     public Move(int startingSquare, int target) {
+        this(startingSquare, target, NO_FLAG);
+    }
+
+    public Move(int startingSquare, int target, int flag) {
         this.startingSquare = startingSquare;
         this.target = target;
+        this.flag = flag;
+    }
+
+    public Move(int move) {
+        this(getStartingSquare(move), getTarget(move), getFlag(move));
+    }
+
+    public int encode() {
+        return encode(startingSquare, target, flag);
+    }
+
+    public static int encode(int startingSquare, int target, int flag) {
+        return startingSquare | (target << 6) | (flag << 12);
+    }
+
+    public static int getStartingSquare(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTarget(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    public static int getFlag(int move) {
+        return move >>> 12;
+    }
+
+    public static boolean isPromotion(int move) {
+        return getFlag(move) >= PROMOTE_TO_QUEEN;
+    }
+
+    public static int getPromotionPieceType(int move) {
+        switch (getFlag(move)) {
+            case PROMOTE_TO_QUEEN:
+                return Piece.QUEEN;
+            case PROMOTE_TO_KNIGHT:
+                return Piece.KNIGHT;
+            case PROMOTE_TO_ROOK:
+                return Piece.ROOK;
+            case PROMOTE_TO_BISHOP:
+                return Piece.BISHOP;
+            default:
+                return Piece.NONE;
+        }
+    }
+
+    public static int promotionFlag(int pieceType) {
+        switch (pieceType) {
+            case Piece.QUEEN:
+                return PROMOTE_TO_QUEEN;
+            case Piece.KNIGHT:
+                return PROMOTE_TO_KNIGHT;
+            case Piece.ROOK:
+                return PROMOTE_TO_ROOK;
+            case Piece.BISHOP:
+                return PROMOTE_TO_BISHOP;
+            default:
+                return NO_FLAG;
+        }
+    }
+
+    // Notation UCI : e2e4, e7e8q
+    public static String toString(int move) {
+        String result = squareToString(getStartingSquare(move)) + squareToString(getTarget(move));
+        if (isPromotion(move)) {
+            result += Piece.pieceToLetterSymbol(getPromotionPieceType(move));
+        }
+        return result;
     }
 
     @Override
     public String toString() {
-        return squareToString(startingSquare) + squareToString(target);
+        return toString(encode());
     }
 
-    private String squareToString(int square) {
+    private static String squareToString(int square) {
         int file = square % 8;
         int rank = square / 8;
         return "" + (char) ('a' + file) + (rank + 1);
@@ -7,12 +7,107 @@ public class MoveGenerator {
     private static final int[] directionOffsets = { 8, -8, -1, 1, 7, -7, 9, -9 };
     private static int[][] numSquaresToEdge;
 
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long RANK_3 = 0xFFL << 16;
+    private static final long RANK_6 = 0xFFL << 40;
+    private static final long PROMOTION_RANKS = 0xFF000000000000FFL;
+
+    // Nombre maximal de coups dans une position (218 connus), taille des tampons de coups
+    public static final int MAX_MOVES = 256;
+
+    // Types de coups générés
+    public static final int ALL_MOVES = 0;
+    public static final int CAPTURES = 1; // Prises, en passant et promotions
+    public static final int QUIET_MOVES = 2; // Tout le reste, roques compris
+
+    // Tables d'attaques précalculées
+    private static long[] knightAttacks;
+    private static long[] kingAttacks;
+    private static long[][] pawnAttacks; // [index couleur][case]
+    private static long[][] rayMasks; // [direction][case]
+    private static long[][] betweenMasks; // Cases strictement entre deux cases alignées
+    private static long[][] lineMasks; // Ligne complète passant par deux cases alignées
+
+    // Tables magiques des pièces glissantes : une multiplication, un décalage et une lecture.
+    // Nombres magiques trouvés hors ligne par recherche aléatoire, un par case.
+    private static final long[] ROOK_MAGICS = {
+            0x1080002080400010L, 0x54C0004290006004L, 0x0A00084020801200L, 0x0200100408220040L,
+            0xC080040002800801L, 0x0300040028010082L, 0x8880010002004080L, 0x4100002480410012L,
+            0x0004800028804001L, 0x0000400020100041L, 0x0010802000100083L, 0x8182002200084010L,
+            0x8005000802110004L, 0x2260808002000400L, 0x0118800100020080L, 0x0002000401248052L,
+            0x0109010020488000L, 0x8001050040008020L, 0x0060014030080040L, 0x0C08008008100480L,
+            0x0002020020041008L, 0x8100818014000200L, 0x0000040012180150L, 0x28800A0002841143L,
+            0x8C00400080008032L, 0x0100200040005004L, 0x0000100080802000L, 0x12D0000900210010L,
+            0x1100080080800400L, 0x0C2A000A00103C08L, 0x0080D00400020128L, 0x8029000100108052L,
+            0xA04000408080002CL, 0x0042400082802010L, 0x0400801000802004L, 0x0081800802801000L,
+            0x0010800402800801L, 0x400C020080800400L, 0x0000080204000110L, 0x210105204200019CL,
+            0x0000400080208008L, 0x8200400083050024L, 0x2180804012020023L, 0x0108090010010020L,
+            0x0008000402004040L, 0x0001000400030008L, 0x0001080210040001L, 0x00050102A8460004L,
+            0x0840400080083080L, 0x1000E00840100540L, 0x08A300B020004300L, 0x2334080080100080L,
+            0x0000080004008080L, 0x8113000802040100L, 0x0000800100020080L, 0x9000010054009200L,
+            0x1800810015E20042L, 0x4000201900400081L, 0x0005082000114101L, 0x04042100D0000409L,
+            0x0002001085200802L, 0x8301000802040001L, 0x4024021000A14804L, 0x0080084080210406L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x8040290602004108L, 0x2020C42092004006L, 0x0004442400480000L, 0x00580A1220815000L,
+            0x0004030811080800L, 0x000202100420000CL, 0x0021881808240000L, 0x2802004914012000L,
+            0x000020E002020844L, 0x8A20020252021E00L, 0x08220800B4008815L, 0x04060404008E1842L,
+            0x9800440422020202L, 0x0000110442400001L, 0x080104023824040CL, 0x8400020201610804L,
+            0x4004602048104108L, 0x001000040408404DL, 0x0028808408021100L, 0x120800040A404880L,
+            0x4808200402082002L, 0x0001800101600600L, 0x200100008C01A004L, 0x8178200049141004L,
+            0x4111040210208212L, 0x4830B00004044082L, 0x1800300048004140L, 0x200108005C004190L,
+            0x0050040003802100L, 0x0008088021300402L, 0x0218020415014140L, 0x0254050400844108L,
+            0x1411900800405840L, 0x02A1102A80888829L, 0x4601280801040422L, 0x00062008001101D0L,
+            0x0808010040100802L, 0x0C10004201404100L, 0x80084109250C0081L, 0x0100820848420100L,
+            0x00C0841108084002L, 0x0800480208041004L, 0x0024A0140A009001L, 0x8040034208008080L,
+            0x0040400109088200L, 0x1040149080808104L, 0x0060548492003080L, 0x0208280508400022L,
+            0x00C0820820848200L, 0x9010840108822040L, 0x8010402402482000L, 0x101214A020881080L,
+            0x051002D0E0220202L, 0x0000102001610001L, 0x2010A00810808008L, 0xA002080141020002L,
+            0x6020138088201040L, 0x0000A10082100200L, 0x0010000104010400L, 0x0020000020411084L,
+            0x0200080820204110L, 0x0002441011302320L, 0x0100100408080050L, 0x1010B00080848A00L
+    };
+
+    private static long[] rookMasks;
+    private static int[] rookShifts;
+    private static long[][] rookAttackTable;
+    private static long[] bishopMasks;
+    private static int[] bishopShifts;
+    private static long[][] bishopAttackTable;
+
+    // Tampon en cours de remplissage, fourni par l'appelant
+    private int[] moves;
+    private int moveCount;
+
+    // État de la position en cours de génération
+    private Board board;
+    private int color;
+    private int opponentColor;
+    private long friendly;
+    private long enemy;
+    private long occupied;
+    private int kingSquare;
+    private long opponentAttacks;
+    private boolean inCheck;
+    private boolean inDoubleCheck;
+    private long checkMask; // Cases qui parent l'échec (toutes hors échec)
+    private long pinned;
+    private int enPassantSquare;
+    private int castlingRights;
+    private int generationType;
+    private long targetMask; // Cases d'arrivée permises selon le type de coups générés
+
     static {
         precomputeMoveData();
     }
 
     private static void precomputeMoveData() {
         numSquaresToEdge = new int[64][8];
+        knightAttacks = new long[64];
+        kingAttacks = new long[64];
+        pawnAttacks = new long[2][64];
+        rayMasks = new long[8][64];
 
         for (int file = 0; file < 8; file++) {
             for (int rank = 0; rank < 8; rank++) {
@@ -30,254 +125,621 @@ public class MoveGenerator {
                 };
             }
         }
-    }
 
-    public List<Move> generateMoves(Game game) {
-        List<Move> moves = new ArrayList<>();
-
-        for (int startSquare = 0; startSquare < 64; startSquare++) {
-            int piece = game.board.squares[startSquare];
-            if (Piece.getColor(piece) == game.colorToMove) {
-                int pieceType = Piece.getType(piece);
-
-                switch (pieceType) {
-                    case Piece.PAWN:
-                        generatePawnMoves(startSquare, piece, game, moves);
-                        break;
-                    case Piece.KNIGHT:
-                        generateKnightMoves(startSquare, piece, game, moves);
-                        break;
-                    case Piece.KING:
-                        generateKingMoves(startSquare, piece, game, moves);
-                        break;
-                    case Piece.BISHOP:
-                    case Piece.ROOK:
-                    case Piece.QUEEN:
-                        generateSlidingMoves(startSquare, piece, game, moves);
-                        break;
+        int[][] knightJumps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+        for (int square = 0; square < 64; square++) {
+            int file = square % 8;
+            int rank = square / 8;
+
+            for (int[] jump : knightJumps) {
+                knightAttacks[square] |= squareBit(file + jump[0], rank + jump[1]);
+            }
+
+            for (int directionIndex = 0; directionIndex < 8; directionIndex++) {
+                if (numSquaresToEdge[square][directionIndex] > 0) {
+                    kingAttacks[square] |= 1L << (square + directionOffsets[directionIndex]);
+                }
+                for (int n = 1; n <= numSquaresToEdge[square][directionIndex]; n++) {
+                    rayMasks[directionIndex][square] |= 1L << (square + directionOffsets[directionIndex] * n);
+                }
+            }
+
+            pawnAttacks[0][square] = squareBit(file - 1, rank + 1) | squareBit(file + 1, rank + 1);
+            pawnAttacks[1][square] = squareBit(file - 1, rank - 1) | squareBit(file + 1, rank - 1);
+        }
+
+        betweenMasks = new long[64][64];
+        lineMasks = new long[64][64];
+        for (int square = 0; square < 64; square++) {
+            for (int directionIndex = 0; directionIndex < 8; directionIndex++) {
+                int opposite = directionIndex ^ 1; // Les directions vont par paires opposées
+                long between = 0L;
+                for (int n = 1; n <= numSquaresToEdge[square][directionIndex]; n++) {
+                    int other = square + directionOffsets[directionIndex] * n;
+                    betweenMasks[square][other] = between;
+                    lineMasks[square][other] = rayMasks[directionIndex][square] | rayMasks[opposite][square]
+                            | (1L << square);
+                    between |= 1L << other;
                 }
             }
         }
 
-        return moves;
+        precomputeMagics();
     }
 
-    private void generatePawnMoves(int startSquare, int piece, Game game, List<Move> moves) {
-        int direction = Piece.isWhite(piece) ? 1 : -1;
-        int startRank = Piece.isWhite(piece) ? 1 : 6;
+    private static void precomputeMagics() {
+        rookMasks = new long[64];
+        rookShifts = new int[64];
+        rookAttackTable = new long[64][];
+        bishopMasks = new long[64];
+        bishopShifts = new int[64];
+        bishopAttackTable = new long[64][];
+
+        for (int square = 0; square < 64; square++) {
+            rookMasks[square] = relevantOccupancyMask(square, 0, 4);
+            rookShifts[square] = 64 - Long.bitCount(rookMasks[square]);
+            rookAttackTable[square] = buildMagicTable(square, rookMasks[square], ROOK_MAGICS[square],
+                    rookShifts[square], 0, 4);
+
+            bishopMasks[square] = relevantOccupancyMask(square, 4, 8);
+            bishopShifts[square] = 64 - Long.bitCount(bishopMasks[square]);
+            bishopAttackTable[square] = buildMagicTable(square, bishopMasks[square], BISHOP_MAGICS[square],
+                    bishopShifts[square], 4, 8);
+        }
+    }
 
-        int file = startSquare % 8;
-        int rank = startSquare / 8;
+    // Cases pouvant bloquer le rayon, sans la dernière case de chaque direction
+    private static long relevantOccupancyMask(int square, int startDirIndex, int endDirIndex) {
+        long mask = 0L;
+        for (int directionIndex = startDirIndex; directionIndex < endDirIndex; directionIndex++) {
+            for (int n = 1; n < numSquaresToEdge[square][directionIndex]; n++) {
+                mask |= 1L << (square + directionOffsets[directionIndex] * n);
+            }
+        }
+        return mask;
+    }
 
-        // Mouvement vers l'avant
-        int oneStep = startSquare + direction * 8;
-        if (oneStep >= 0 && oneStep < 64 && game.board.squares[oneStep] == Piece.NONE) {
-            moves.add(new Move(startSquare, oneStep));
+    private static long[] buildMagicTable(int square, long mask, long magic, int shift,
+            int startDirIndex, int endDirIndex) {
+        long[] table = new long[1 << (64 - shift)];
 
-            // Mouvement de deux cases depuis la position initiale
-            if (rank == startRank) {
-                int twoStep = startSquare + direction * 16;
-                if (twoStep >= 0 && twoStep < 64 && game.board.squares[twoStep] == Piece.NONE) {
-                    moves.add(new Move(startSquare, twoStep));
-                }
+        // Énumère tous les sous-ensembles du masque (Carry-Rippler)
+        long subset = 0L;
+        do {
+            long attacks = 0L;
+            for (int directionIndex = startDirIndex; directionIndex < endDirIndex; directionIndex++) {
+                attacks |= getRayAttacks(square, directionIndex, subset);
             }
+            table[(int) ((subset * magic) >>> shift)] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        return table;
+    }
+
+    private static long squareBit(int file, int rank) {
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return 0L;
+        }
+        return 1L << (rank * 8 + file);
+    }
+
+    public static long getKnightAttacks(int square) {
+        return knightAttacks[square];
+    }
+
+    public static long getKingAttacks(int square) {
+        return kingAttacks[square];
+    }
+
+    // Cases attaquées par un pion de la couleur donnée placé sur square
+    public static long getPawnAttacks(int square, int color) {
+        return pawnAttacks[Piece.getColorIndex(color)][square];
+    }
+
+    public static long getRookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & rookMasks[square]) * ROOK_MAGICS[square]) >>> rookShifts[square]);
+        return rookAttackTable[square][index];
+    }
+
+    public static long getBishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & bishopMasks[square]) * BISHOP_MAGICS[square]) >>> bishopShifts[square]);
+        return bishopAttackTable[square][index];
+    }
+
+    // Rayon jusqu'au premier bloqueur inclus
+    private static long getRayAttacks(int square, int directionIndex, long occupied) {
+        long attacks = rayMasks[directionIndex][square];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            int blocker = directionOffsets[directionIndex] > 0
+                    ? Long.numberOfTrailingZeros(blockers)
+                    : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= rayMasks[directionIndex][blocker];
         }
+        return attacks;
+    }
+
+    // Adaptateur pour l'ancienne API à base d'objets Move
+    public List<Move> generateMoves(Game game) {
+        int[] buffer = new int[MAX_MOVES];
+        int count = generateMoves(game, buffer);
+        List<Move> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Move(buffer[i]));
+        }
+        return result;
+    }
 
-        // Captures en diagonal
-        int[] captureDirs = { direction * 7, direction * 9 };
-        for (int captureDir : captureDirs) {
-            int captureSquare = startSquare + captureDir;
-            if (captureSquare >= 0 && captureSquare < 64) {
-                int captureFile = captureSquare % 8;
-                // Vérifier qu'on ne wrappe pas autour du plateau
-                if (Math.abs(captureFile - file) == 1) {
-                    int capturedPiece = game.board.squares[captureSquare];
-                    if (capturedPiece != Piece.NONE &&
-                            Piece.getColor(capturedPiece) != Piece.getColor(piece)) {
-                        moves.add(new Move(startSquare, captureSquare));
-                    }
+    // Écrit les coups légaux dans le tampon fourni par l'appelant et renvoie leur nombre.
+    // Les échecs et les clouages sont calculés une fois, puis chaque pièce est restreinte par des masques.
+    public int generateMoves(Game game, int[] buffer) {
+        return generateMoves(game, buffer, ALL_MOVES);
+    }
+
+    // type : ALL_MOVES, CAPTURES (en passant et promotions compris) ou QUIET_MOVES
+    public int generateMoves(Game game, int[] buffer, int type) {
+        setPosition(game);
+        return generateMoves(buffer, 0, type);
+    }
+
+    // Analyse les échecs et les clouages de la position, réutilisés par les appels suivants
+    // à generateMoves(int[], int, int) et isLegal tant que la position ne change pas
+    public void setPosition(Game game) {
+        initialize(game);
+    }
+
+    // Génère un type de coups de la position donnée à setPosition, à partir de l'index start du tampon
+    public int generateMoves(int[] buffer, int start, int type) {
+        moves = buffer;
+        moveCount = start;
+
+        generationType = type;
+        targetMask = type == ALL_MOVES ? ~friendly : type == CAPTURES ? enemy : ~occupied;
+        generateKingMoves();
+
+        // En double échec, seul le roi peut bouger
+        if (!inDoubleCheck) {
+            generatePawnMoves();
+            generatePieceMoves();
+        }
+
+        moves = null;
+        return moveCount - start;
+    }
+
+    // Vérifie un coup venu d'ailleurs (table de transposition, killers) dans la position donnée à setPosition
+    public boolean isLegal(int move) {
+        int startSquare = Move.getStartingSquare(move);
+        int targetSquare = Move.getTarget(move);
+        int flag = Move.getFlag(move);
+        int piece = board.squares[startSquare];
+        if (move == Move.NULL_MOVE || flag > Move.PROMOTE_TO_BISHOP
+                || piece == Piece.NONE || Piece.getColor(piece) != color) {
+            return false;
+        }
+        long target = 1L << targetSquare;
+
+        switch (Piece.getType(piece)) {
+            case Piece.KING:
+                if (flag == Move.CASTLING) {
+                    return !inCheck && (targetSquare == startSquare + 2 ? canCastle(true)
+                            : targetSquare == startSquare - 2 && canCastle(false));
                 }
-            }
+                return flag == Move.NO_FLAG && (kingAttacks[startSquare] & ~friendly & ~opponentAttacks & target) != 0;
+            case Piece.PAWN:
+                if (inDoubleCheck) {
+                    return false;
+                }
+                if (flag == Move.EN_PASSANT_CAPTURE) {
+                    return targetSquare == enPassantSquare
+                            && (getPawnAttacks(startSquare, color) & target) != 0
+                            && isLegalEnPassant(startSquare, targetSquare);
+                }
+                if (flag == Move.CASTLING || Move.isPromotion(move) != ((target & PROMOTION_RANKS) != 0)
+                        || (flag == Move.PAWN_TWO_FORWARD) != (Math.abs(targetSquare - startSquare) == 16)) {
+                    return false;
+                }
+                return (pawnTargets(1L << startSquare, allowedTargets(startSquare)) & target) != 0;
+            case Piece.KNIGHT:
+                return flag == Move.NO_FLAG && !inDoubleCheck && (pinned & (1L << startSquare)) == 0
+                        && (knightAttacks[startSquare] & ~friendly & checkMask & target) != 0;
+            default:
+                if (flag != Move.NO_FLAG || inDoubleCheck) {
+                    return false;
+                }
+                long attacks = 0;
+                if (!Piece.isType(piece, Piece.BISHOP)) {
+                    attacks |= getRookAttacks(startSquare, occupied);
+                }
+                if (!Piece.isType(piece, Piece.ROOK)) {
+                    attacks |= getBishopAttacks(startSquare, occupied);
+                }
+                return (attacks & ~friendly & allowedTargets(startSquare) & target) != 0;
         }
     }
 
-    private void generateKnightMoves(int startSquare, int piece, Game game, List<Move> moves) {
-        int[] knightMoves = { 15, 17, -15, -17, 10, 6, -10, -6 };
-        int file = startSquare % 8;
-        int rank = startSquare / 8;
+    // Indique s'il existe au moins un coup légal, sans remplir de tampon.
+    // Les candidats les moins chers sont essayés d'abord : roi, cavaliers, pions, puis pièces glissantes.
+    public boolean hasLegalMove(Game game) {
+        initialize(game);
+
+        // Le roque n'est légal que si le roi peut déjà aller sur la case voisine
+        if (kingSquare != -1 && (kingAttacks[kingSquare] & ~friendly & ~opponentAttacks) != 0) {
+            return true;
+        }
+        if (inDoubleCheck) {
+            return false;
+        }
 
-        for (int moveOffset : knightMoves) {
-            int targetSquare = startSquare + moveOffset;
-            if (targetSquare >= 0 && targetSquare < 64) {
-                int targetFile = targetSquare % 8;
-                int targetRank = targetSquare / 8;
+        long knights = board.getPieces(Piece.KNIGHT, color) & ~pinned;
+        while (knights != 0) {
+            if ((knightAttacks[Long.numberOfTrailingZeros(knights)] & ~friendly & checkMask) != 0) {
+                return true;
+            }
+            knights &= knights - 1;
+        }
 
-                // Vérifier que le mouvement est valide (pas de wrap-around)
-                if (Math.abs(targetFile - file) <= 2 && Math.abs(targetRank - rank) <= 2) {
-                    int targetPiece = game.board.squares[targetSquare];
-                    if (targetPiece == Piece.NONE ||
-                            Piece.getColor(targetPiece) != Piece.getColor(piece)) {
-                        moves.add(new Move(startSquare, targetSquare));
-                    }
+        long pawns = board.getPieces(Piece.PAWN, color);
+        if (pawnTargets(pawns & ~pinned, checkMask) != 0) {
+            return true;
+        }
+        long pinnedPawns = pawns & pinned;
+        while (pinnedPawns != 0) {
+            int startSquare = Long.numberOfTrailingZeros(pinnedPawns);
+            pinnedPawns &= pinnedPawns - 1;
+            if (pawnTargets(1L << startSquare, allowedTargets(startSquare)) != 0) {
+                return true;
+            }
+        }
+
+        long orthogonalSliders = board.getPieces(Piece.ROOK, color) | board.getPieces(Piece.QUEEN, color);
+        while (orthogonalSliders != 0) {
+            int startSquare = Long.numberOfTrailingZeros(orthogonalSliders);
+            orthogonalSliders &= orthogonalSliders - 1;
+            if ((getRookAttacks(startSquare, occupied) & ~friendly & allowedTargets(startSquare)) != 0) {
+                return true;
+            }
+        }
+
+        long diagonalSliders = board.getPieces(Piece.BISHOP, color) | board.getPieces(Piece.QUEEN, color);
+        while (diagonalSliders != 0) {
+            int startSquare = Long.numberOfTrailingZeros(diagonalSliders);
+            diagonalSliders &= diagonalSliders - 1;
+            if ((getBishopAttacks(startSquare, occupied) & ~friendly & allowedTargets(startSquare)) != 0) {
+                return true;
+            }
+        }
+
+        // La prise en passant en dernier : rare et la plus coûteuse à valider
+        if (game.enPassantSquare != -1) {
+            long attackers = getPawnAttacks(game.enPassantSquare, opponentColor) & pawns;
+            while (attackers != 0) {
+                int startSquare = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                if (isLegalEnPassant(startSquare, game.enPassantSquare)) {
+                    return true;
                 }
             }
         }
+
+        return false;
     }
 
-    private void generateKingMoves(int startSquare, int piece, Game game, List<Move> moves) {
-        for (int directionIndex = 0; directionIndex < 8; directionIndex++) {
-            int targetSquare = startSquare + directionOffsets[directionIndex];
-            if (targetSquare >= 0 && targetSquare < 64) {
-                int file = startSquare % 8;
-                int targetFile = targetSquare % 8;
+    // Échec dans la dernière position générée
+    public boolean isInCheck() {
+        return inCheck;
+    }
 
-                // Vérifier qu'on ne wrappe pas autour du plateau
-                if (Math.abs(targetFile - file) <= 1) {
-                    int targetPiece = game.board.squares[targetSquare];
-                    if (targetPiece == Piece.NONE ||
-                            Piece.getColor(targetPiece) != Piece.getColor(piece)) {
-                        moves.add(new Move(startSquare, targetSquare));
-                    }
-                }
+    private void initialize(Game game) {
+        board = game.board;
+        enPassantSquare = game.enPassantSquare;
+        castlingRights = game.castlingRights;
+        color = game.colorToMove;
+        opponentColor = Piece.getOpponentColor(color);
+        friendly = board.getColorPieces(color);
+        enemy = board.getColorPieces(opponentColor);
+        occupied = board.allPiecesBitboard;
+
+        long king = board.getPieces(Piece.KING, color);
+        kingSquare = board.getKingSquare(color);
+
+        // Cases attaquées par l'adversaire, roi retiré pour qu'il ne puisse pas reculer le long d'un rayon
+        opponentAttacks = computeAttacks(opponentColor, occupied & ~king);
+        inCheck = (opponentAttacks & king) != 0;
+        inDoubleCheck = false;
+        checkMask = ~0L;
+        pinned = 0L;
+
+        if (kingSquare == -1) {
+            return;
+        }
+
+        if (inCheck) {
+            long checkers = getAttackers(kingSquare, opponentColor, occupied);
+            inDoubleCheck = (checkers & (checkers - 1)) != 0;
+            if (!inDoubleCheck) {
+                // Capturer la pièce qui donne échec ou s'interposer
+                int checker = Long.numberOfTrailingZeros(checkers);
+                checkMask = checkers | betweenMasks[kingSquare][checker];
             }
         }
 
-        // Roque
-        if (!game.isInCheck(Piece.getColor(piece))) {
-            generateCastlingMoves(startSquare, piece, game, moves);
+        // Pièces clouées : une seule pièce amie entre le roi et une pièce glissante adverse
+        long queens = board.getPieces(Piece.QUEEN, opponentColor);
+        long snipers = (getRookAttacks(kingSquare, 0L) & (board.getPieces(Piece.ROOK, opponentColor) | queens))
+                | (getBishopAttacks(kingSquare, 0L) & (board.getPieces(Piece.BISHOP, opponentColor) | queens));
+        while (snipers != 0) {
+            int sniperSquare = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = betweenMasks[kingSquare][sniperSquare] & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & friendly) != 0) {
+                pinned |= blockers;
+            }
         }
     }
 
-    private void generateCastlingMoves(int startSquare, int piece, Game game, List<Move> moves) {
-        int color = Piece.getColor(piece);
-        int backRank = color == Piece.WHITE ? 0 : 7;
+    // Toutes les cases attaquées par une couleur, pour une occupation donnée
+    private long computeAttacks(int attackerColor, long occupancy) {
+        long pawns = board.getPieces(Piece.PAWN, attackerColor);
+        long attacks = attackerColor == Piece.WHITE
+                ? ((pawns << 7) & ~FILE_H) | ((pawns << 9) & ~FILE_A)
+                : ((pawns >>> 9) & ~FILE_H) | ((pawns >>> 7) & ~FILE_A);
+
+        long knights = board.getPieces(Piece.KNIGHT, attackerColor);
+        while (knights != 0) {
+            attacks |= knightAttacks[Long.numberOfTrailingZeros(knights)];
+            knights &= knights - 1;
+        }
+
+        int kingSquare = board.getKingSquare(attackerColor);
+        if (kingSquare != -1) {
+            attacks |= kingAttacks[kingSquare];
+        }
 
-        // Kingside
-        if (canCastle(game, color, true)) {
-            moves.add(new Move(startSquare, backRank * 8 + 6));
+        long queens = board.getPieces(Piece.QUEEN, attackerColor);
+        long orthogonalSliders = board.getPieces(Piece.ROOK, attackerColor) | queens;
+        while (orthogonalSliders != 0) {
+            attacks |= getRookAttacks(Long.numberOfTrailingZeros(orthogonalSliders), occupancy);
+            orthogonalSliders &= orthogonalSliders - 1;
         }
 
-        // Queenside
-        if (canCastle(game, color, false)) {
-            moves.add(new Move(startSquare, backRank * 8 + 2));
+        long diagonalSliders = board.getPieces(Piece.BISHOP, attackerColor) | queens;
+        while (diagonalSliders != 0) {
+            attacks |= getBishopAttacks(Long.numberOfTrailingZeros(diagonalSliders), occupancy);
+            diagonalSliders &= diagonalSliders - 1;
         }
+
+        return attacks;
     }
 
-    private boolean canCastle(Game game, int color, boolean kingside) {
-        int king = Piece.KING | color;
-        int rook = Piece.ROOK | color;
-        int backRank = color == Piece.WHITE ? 0 : 7;
-        int kingSquare = backRank * 8 + 4;
-        int rookSquare = kingside ? backRank * 8 + 7 : backRank * 8;
+    // Pièces de attackerColor qui attaquent square
+    private long getAttackers(int square, int attackerColor, long occupancy) {
+        long queens = board.getPieces(Piece.QUEEN, attackerColor);
+        return (getPawnAttacks(square, Piece.getOpponentColor(attackerColor)) & board.getPieces(Piece.PAWN, attackerColor))
+                | (knightAttacks[square] & board.getPieces(Piece.KNIGHT, attackerColor))
+                | (getRookAttacks(square, occupancy) & (board.getPieces(Piece.ROOK, attackerColor) | queens))
+                | (getBishopAttacks(square, occupancy) & (board.getPieces(Piece.BISHOP, attackerColor) | queens));
+    }
 
-        // Vérification des pièces
-        if (game.board.squares[kingSquare] != king ||
-                game.board.squares[rookSquare] != rook) {
-            return false;
+    // Cases autorisées pour une pièce : parer l'échec et, si elle est clouée, rester sur la ligne du clouage
+    private long allowedTargets(int startSquare) {
+        if ((pinned & (1L << startSquare)) != 0) {
+            return checkMask & lineMasks[kingSquare][startSquare];
         }
+        return checkMask;
+    }
 
-        // Vérification des cases vides
-        int start = kingside ? 5 : 1;
-        int end = kingside ? 6 : 3;
-        for (int file = start; file <= end; file++) {
-            if (game.board.squares[backRank * 8 + file] != Piece.NONE) {
-                return false;
-            }
+    private void generatePieceMoves() {
+        // Un cavalier cloué ne peut jamais bouger
+        long knights = board.getPieces(Piece.KNIGHT, color) & ~pinned;
+        while (knights != 0) {
+            int startSquare = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            addMoves(startSquare, knightAttacks[startSquare] & targetMask & checkMask);
         }
 
-        // Vérification des attaques - utiliser la nouvelle méthode directe
-        int opponentColor = Piece.getOpponentColor(color);
-        for (int file = 4; file <= (kingside ? 6 : 2); file++) {
-            int square = backRank * 8 + file;
-            if (game.isSquareAttacked(square, opponentColor)) {
-                return false;
-            }
+        long orthogonalSliders = board.getPieces(Piece.ROOK, color) | board.getPieces(Piece.QUEEN, color);
+        while (orthogonalSliders != 0) {
+            int startSquare = Long.numberOfTrailingZeros(orthogonalSliders);
+            orthogonalSliders &= orthogonalSliders - 1;
+            addMoves(startSquare, getRookAttacks(startSquare, occupied) & targetMask & allowedTargets(startSquare));
         }
 
-        return true;
+        long diagonalSliders = board.getPieces(Piece.BISHOP, color) | board.getPieces(Piece.QUEEN, color);
+        while (diagonalSliders != 0) {
+            int startSquare = Long.numberOfTrailingZeros(diagonalSliders);
+            diagonalSliders &= diagonalSliders - 1;
+            addMoves(startSquare, getBishopAttacks(startSquare, occupied) & targetMask & allowedTargets(startSquare));
+        }
     }
 
-    private void generateSlidingMoves(int startSquare, int piece, Game game, List<Move> moves) {
-        int startDirIndex = Piece.isType(piece, Piece.BISHOP) ? 4 : 0;
-        int endDirIndex = Piece.isType(piece, Piece.ROOK) ? 4 : 8;
+    private void addMoves(int startSquare, long targets) {
+        while (targets != 0) {
+            int targetSquare = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[moveCount++] = Move.encode(startSquare, targetSquare, Move.NO_FLAG);
+        }
+    }
 
-        for (int directionIndex = startDirIndex; directionIndex < endDirIndex; directionIndex++) {
-            for (int n = 0; n < numSquaresToEdge[startSquare][directionIndex]; n++) {
-                int targetSquare = startSquare + directionOffsets[directionIndex] * (n + 1);
-                int pieceOnTargetSquare = game.board.squares[targetSquare];
+    // Ajoute un coup pour chaque case de targets, la case de départ étant target - offset
+    private void addPawnMoves(long targets, int offset, int flag) {
+        while (targets != 0) {
+            int targetSquare = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[moveCount++] = Move.encode(targetSquare - offset, targetSquare, flag);
+        }
+    }
 
-                if (Piece.getColor(pieceOnTargetSquare) == Piece.getColor(piece)) {
-                    break;
-                }
+    private void addPromotions(long targets, int offset) {
+        while (targets != 0) {
+            int targetSquare = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int startSquare = targetSquare - offset;
+            moves[moveCount++] = Move.encode(startSquare, targetSquare, Move.PROMOTE_TO_QUEEN);
+            moves[moveCount++] = Move.encode(startSquare, targetSquare, Move.PROMOTE_TO_KNIGHT);
+            moves[moveCount++] = Move.encode(startSquare, targetSquare, Move.PROMOTE_TO_ROOK);
+            moves[moveCount++] = Move.encode(startSquare, targetSquare, Move.PROMOTE_TO_BISHOP);
+        }
+    }
+
+    // Sépare les coups normaux des promotions
+    private void addPawnTargets(long targets, int offset) {
+        addPawnMoves(targets & ~PROMOTION_RANKS, offset, Move.NO_FLAG);
+        addPromotions(targets & PROMOTION_RANKS, offset);
+    }
 
-                moves.add(new Move(startSquare, targetSquare));
+    private void generatePawnMoves() {
+        long pawns = board.getPieces(Piece.PAWN, color);
 
-                if (Piece.getColor(pieceOnTargetSquare) == Piece.getOpponentColor(piece)) {
-                    break;
+        // Pions libres ensemble, puis chaque pion cloué avec sa propre ligne
+        generatePawnMoves(pawns & ~pinned, checkMask);
+        long pinnedPawns = pawns & pinned;
+        while (pinnedPawns != 0) {
+            int startSquare = Long.numberOfTrailingZeros(pinnedPawns);
+            pinnedPawns &= pinnedPawns - 1;
+            generatePawnMoves(1L << startSquare, allowedTargets(startSquare));
+        }
+
+        // Prise en passant
+        if (enPassantSquare != -1 && generationType != QUIET_MOVES) {
+            long attackers = getPawnAttacks(enPassantSquare, opponentColor) & pawns;
+            while (attackers != 0) {
+                int startSquare = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                if (isLegalEnPassant(startSquare, enPassantSquare)) {
+                    moves[moveCount++] = Move.encode(startSquare, enPassantSquare, Move.EN_PASSANT_CAPTURE);
                 }
             }
         }
     }
 
-    public boolean isSquareAttackedDirectly(Board board, int square, int attackerColor) {
-        int[] directions = { 8, -8, -1, 1, 7, -7, 9, -9 }; // Toutes les directions
-
-        for (int direction : directions) {
-            for (int i = 1; i < 8; i++) {
-                int targetSquare = square + direction * i;
-                if (targetSquare < 0 || targetSquare >= 64)
-                    break;
-
-                int piece = board.squares[targetSquare];
-                if (piece == Piece.NONE)
-                    continue;
-
-                if (Piece.getColor(piece) == attackerColor) {
-                    int type = Piece.getType(piece);
-
-                    // Vérification des pièces attaquantes
-                    if (i == 1 && type == Piece.KING)
-                        return true;
-                    if (type == Piece.QUEEN)
-                        return true;
-                    if (type == Piece.ROOK && direction < 4)
-                        return true; // Directions orthogonales
-                    if (type == Piece.BISHOP && direction >= 4)
-                        return true; // Directions diagonales
-                }
-                break; // Une pièce bloque le chemin
-            }
+    private void generatePawnMoves(long pawns, long allowed) {
+        // Les poussées qui promeuvent comptent comme des captures (et n'ont jamais de double poussée)
+        long empty = generationType == ALL_MOVES ? ~occupied
+                : generationType == CAPTURES ? ~occupied & PROMOTION_RANKS
+                : ~occupied & ~PROMOTION_RANKS;
+        long enemy = generationType == QUIET_MOVES ? 0L : this.enemy;
+
+        if (color == Piece.WHITE) {
+            // Mouvement vers l'avant, puis de deux cases depuis la position initiale
+            long oneStep = (pawns << 8) & empty;
+            long twoStep = ((oneStep & RANK_3) << 8) & empty;
+            addPawnTargets(oneStep & allowed, 8);
+            addPawnMoves(twoStep & allowed, 16, Move.PAWN_TWO_FORWARD);
+
+            // Captures en diagonal, sans wrapper autour du plateau
+            addPawnTargets((pawns << 7) & ~FILE_H & enemy & allowed, 7);
+            addPawnTargets((pawns << 9) & ~FILE_A & enemy & allowed, 9);
+        } else {
+            long oneStep = (pawns >>> 8) & empty;
+            long twoStep = ((oneStep & RANK_6) >>> 8) & empty;
+            addPawnTargets(oneStep & allowed, -8);
+            addPawnMoves(twoStep & allowed, -16, Move.PAWN_TWO_FORWARD);
+
+            addPawnTargets((pawns >>> 9) & ~FILE_H & enemy & allowed, -9);
+            addPawnTargets((pawns >>> 7) & ~FILE_A & enemy & allowed, -7);
         }
+    }
 
-        // Vérifier les attaques de pions
-        int pawnDirection = attackerColor == Piece.WHITE ? 1 : -1;
-        int[] pawnAttacks = { 7 * pawnDirection, 9 * pawnDirection };
-        for (int attack : pawnAttacks) {
-            int pawnSquare = square - attack;
-            if (pawnSquare < 0 || pawnSquare >= 64)
-                continue;
+    // Toutes les cases d'arrivée des pions donnés (hors prise en passant), restreintes à allowed
+    private long pawnTargets(long pawns, long allowed) {
+        long empty = ~occupied;
+        long targets;
+        if (color == Piece.WHITE) {
+            long oneStep = (pawns << 8) & empty;
+            targets = oneStep | (((oneStep & RANK_3) << 8) & empty)
+                    | (((pawns << 7) & ~FILE_H) & enemy) | (((pawns << 9) & ~FILE_A) & enemy);
+        } else {
+            long oneStep = (pawns >>> 8) & empty;
+            targets = oneStep | (((oneStep & RANK_6) >>> 8) & empty)
+                    | (((pawns >>> 9) & ~FILE_H) & enemy) | (((pawns >>> 7) & ~FILE_A) & enemy);
+        }
+        return targets & allowed;
+    }
 
-            int piece = board.squares[pawnSquare];
-            if (Piece.getType(piece) == Piece.PAWN &&
-                    Piece.getColor(piece) == attackerColor) {
-                return true;
-            }
+    // La prise en passant retire deux pions d'une même rangée : on vérifie directement le roi
+    private boolean isLegalEnPassant(int startSquare, int targetSquare) {
+        int capturedSquare = targetSquare + (color == Piece.WHITE ? -8 : 8);
+        if ((checkMask & ((1L << targetSquare) | (1L << capturedSquare))) == 0) {
+            return false;
+        }
+        if (kingSquare == -1) {
+            return true;
         }
 
-        // Vérifier les attaques de cavaliers
-        int[] knightMoves = { 15, 17, -15, -17, 10, 6, -10, -6 };
-        for (int move : knightMoves) {
-            int knightSquare = square + move;
-            if (knightSquare < 0 || knightSquare >= 64)
-                continue;
+        long occupancyAfter = (occupied ^ (1L << startSquare) ^ (1L << capturedSquare)) | (1L << targetSquare);
+        long queens = board.getPieces(Piece.QUEEN, opponentColor);
+        return (getRookAttacks(kingSquare, occupancyAfter) & (board.getPieces(Piece.ROOK, opponentColor) | queens)) == 0
+                && (getBishopAttacks(kingSquare, occupancyAfter) & (board.getPieces(Piece.BISHOP, opponentColor) | queens)) == 0;
+    }
 
-            int piece = board.squares[knightSquare];
-            if (Piece.getType(piece) == Piece.KNIGHT &&
-                    Piece.getColor(piece) == attackerColor) {
-                return true;
+    private void generateKingMoves() {
+        if (kingSquare == -1) {
+            return;
+        }
+
+        addMoves(kingSquare, kingAttacks[kingSquare] & targetMask & ~opponentAttacks);
+
+        // Roque
+        if (!inCheck && generationType != CAPTURES) {
+            int backRank = color == Piece.WHITE ? 0 : 7;
+            if (canCastle(true)) {
+                moves[moveCount++] = Move.encode(kingSquare, backRank * 8 + 6, Move.CASTLING);
+            }
+            if (canCastle(false)) {
+                moves[moveCount++] = Move.encode(kingSquare, backRank * 8 + 2, Move.CASTLING);
             }
         }
+    }
 
-        return false;
+    private boolean canCastle(boolean kingside) {
+        int backRank = color == Piece.WHITE ? 0 : 7;
+        int rookSquare = kingside ? backRank * 8 + 7 : backRank * 8;
+
+        // Vérification des droits de roque
+        int right = color == Piece.WHITE
+                ? (kingside ? Game.WHITE_KINGSIDE : Game.WHITE_QUEENSIDE)
+                : (kingside ? Game.BLACK_KINGSIDE : Game.BLACK_QUEENSIDE);
+        if ((castlingRights & right) == 0) {
+            return false;
+        }
+
+        // Vérification des pièces
+        if (kingSquare != backRank * 8 + 4 || board.squares[rookSquare] != (Piece.ROOK | color)) {
+            return false;
+        }
+
+        // Cases vides entre le roi et la tour, cases du trajet du roi non attaquées
+        long emptyMask = (kingside ? 0x60L : 0x0EL) << (backRank * 8);
+        long safeMask = (kingside ? 0x70L : 0x1CL) << (backRank * 8);
+        return (occupied & emptyMask) == 0 && (opponentAttacks & safeMask) == 0;
+    }
+
+    public boolean isSquareAttackedDirectly(Board board, int square, int attackerColor) {
+        long occupied = board.allPiecesBitboard;
+
+        // Un pion attaquant se trouve là où un pion adverse placé sur square attaquerait
+        if ((getPawnAttacks(square, Piece.getOpponentColor(attackerColor))
+                & board.getPieces(Piece.PAWN, attackerColor)) != 0) {
+            return true;
+        }
+
+        if ((knightAttacks[square] & board.getPieces(Piece.KNIGHT, attackerColor)) != 0) {
+            return true;
+        }
+
+        if ((kingAttacks[square] & board.getPieces(Piece.KING, attackerColor)) != 0) {
+            return true;
+        }
+
+        long queens = board.getPieces(Piece.QUEEN, attackerColor);
+        long orthogonal = board.getPieces(Piece.ROOK, attackerColor) | queens;
+        if (orthogonal != 0 && (getRookAttacks(square, occupied) & orthogonal) != 0) {
+            return true;
+        }
+
+        long diagonal = board.getPieces(Piece.BISHOP, attackerColor) | queens;
+        return diagonal != 0 && (getBishopAttacks(square, occupied) & diagonal) != 0;
     }
 }
@@ -0,0 +1,245 @@
+package com.chessbot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Compte les feuilles de l'arbre des coups légaux pour valider et chronométrer le générateur
+public class Perft {
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Positions de référence et nombres de nœuds connus pour les profondeurs 1, 2, 3...
+    public static final String[] REFERENCE_FENS = {
+            START_FEN,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+    public static final long[][] REFERENCE_COUNTS = {
+            { 20, 400, 8902, 197281, 4865609, 119060324 },
+            { 48, 2039, 97862, 4085603, 193690690 },
+            { 14, 191, 2812, 43238, 674624, 11030083 },
+            { 6, 264, 9467, 422333, 15833292 },
+            { 44, 1486, 62379, 2103487, 89941194 },
+            { 46, 2079, 89890, 3894594, 164075551 }
+    };
+
+    private final ForkJoinPool pool;
+    private final PerftHash hash;
+
+    public Perft(int threads, int hashSizeMb) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.hash = hashSizeMb > 0 ? new PerftHash(hashSizeMb) : null;
+    }
+
+    // Répartit les coups de la racine entre les threads et renvoie le sous-total de chacun
+    public List<String> divide(Game game, int depth, long[] total) {
+        MoveGenerator moveGenerator = new MoveGenerator();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = moveGenerator.generateMoves(game, moves);
+
+        List<RootMoveTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new RootMoveTask(game.copy(), moves[i], depth - 1));
+        }
+
+        List<String> lines = new ArrayList<>();
+        long nodes = 0;
+        for (RootMoveTask task : tasks) {
+            pool.execute(task);
+        }
+        for (RootMoveTask task : tasks) {
+            long subtotal = task.join();
+            nodes += subtotal;
+            lines.add(Move.toString(task.move) + ": " + subtotal);
+        }
+
+        total[0] = nodes;
+        return lines;
+    }
+
+    public long perft(Game game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long[] total = new long[1];
+        divide(game, depth, total);
+        return total[0];
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @SuppressWarnings("serial") // Jamais sérialisée, seulement soumise au pool
+    private class RootMoveTask extends RecursiveTask<Long> {
+        private final Game game;
+        private final int move;
+        private final int depth;
+        private final MoveGenerator moveGenerator = new MoveGenerator();
+        private int[][] moveBuffers;
+
+        RootMoveTask(Game game, int move, int depth) {
+            this.game = game;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            moveBuffers = new int[depth + 1][MoveGenerator.MAX_MOVES];
+            game.makeMove(move);
+            return count(depth);
+        }
+
+        private long count(int depth) {
+            if (depth == 0) {
+                return 1;
+            }
+
+            if (hash != null) {
+                long cached = hash.probe(game.zobristKey, depth);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+
+            int[] moves = moveBuffers[depth];
+            int count = moveGenerator.generateMoves(game, moves);
+
+            // Au dernier niveau, le nombre de coups légaux suffit
+            long nodes = 0;
+            if (depth == 1) {
+                nodes = count;
+            } else {
+                for (int i = 0; i < count; i++) {
+                    game.makeMove(moves[i]);
+                    nodes += count(depth - 1);
+                    game.unmakeMove(moves[i]);
+                }
+            }
+
+            if (hash != null) {
+                hash.store(game.zobristKey, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    // Table de sous-totaux partagée sans verrou : (clé XOR compte, compte) validé par XOR
+    private static class PerftHash {
+        private final long[] table;
+        private final int mask;
+
+        PerftHash(int sizeMb) {
+            int entries = Integer.highestOneBit((int) Math.min((long) sizeMb * 1024 * 1024 / 16, 1 << 30));
+            table = new long[entries * 2];
+            mask = entries - 1;
+        }
+
+        private static long entryKey(long key, int depth) {
+            return key ^ (depth * 0x9E3779B97F4A7C15L);
+        }
+
+        long probe(long key, int depth) {
+            long entryKey = entryKey(key, depth);
+            int slot = ((int) entryKey & mask) * 2;
+            long count = table[slot + 1];
+            return count != 0 && (table[slot] ^ count) == entryKey ? count : -1;
+        }
+
+        void store(long key, int depth, long count) {
+            long entryKey = entryKey(key, depth);
+            int slot = ((int) entryKey & mask) * 2;
+            table[slot] = entryKey ^ count;
+            table[slot + 1] = count;
+        }
+    }
+
+    // Perft <profondeur> <fen|startpos> [--hash Mo] [--threads N]
+    // Perft --suite [profondeur max] [--hash Mo] [--threads N]
+    public static void main(String[] args) {
+        int hashSizeMb = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--hash") && i + 1 < args.length) {
+                hashSizeMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+
+        Perft perft = new Perft(threads, hashSizeMb);
+        try {
+            if (positional.isEmpty() || positional.get(0).equals("--suite")) {
+                int maxDepth = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 4;
+                boolean allPassed = runSuite(perft, maxDepth);
+                if (!allPassed) {
+                    System.exit(1);
+                }
+            } else {
+                int depth = Integer.parseInt(positional.get(0));
+                String fen = positional.size() > 1 ? String.join(" ", positional.subList(1, positional.size())) : "startpos";
+                runDivide(perft, fen.equals("startpos") ? START_FEN : fen, depth);
+            }
+        } finally {
+            perft.shutdown();
+        }
+    }
+
+    private static void runDivide(Perft perft, String fen, int depth) {
+        Game game = new Game(false, true);
+        game.loadPositionFromFEN(fen);
+
+        long start = System.nanoTime();
+        long[] total = new long[1];
+        List<String> lines = perft.divide(game, depth, total);
+        long elapsed = System.nanoTime() - start;
+
+        for (String line : lines) {
+            System.out.println(line);
+        }
+        System.out.println();
+        System.out.println("Coups: " + lines.size());
+        System.out.println("Nœuds: " + total[0]);
+        System.out.printf("Temps: %.3f s\n", elapsed / 1e9);
+        System.out.println("Nœuds/s: " + (long) (total[0] / Math.max(elapsed / 1e9, 1e-9)));
+    }
+
+    private static boolean runSuite(Perft perft, int maxDepth) {
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long start = System.nanoTime();
+
+        for (int p = 0; p < REFERENCE_FENS.length; p++) {
+            Game game = new Game(false, true);
+            game.loadPositionFromFEN(REFERENCE_FENS[p]);
+            System.out.println(REFERENCE_FENS[p]);
+
+            for (int depth = 1; depth <= Math.min(maxDepth, REFERENCE_COUNTS[p].length); depth++) {
+                long positionStart = System.nanoTime();
+                long nodes = perft.perft(game, depth);
+                long elapsed = System.nanoTime() - positionStart;
+                long expected = REFERENCE_COUNTS[p][depth - 1];
+                boolean passed = nodes == expected;
+                allPassed &= passed;
+                totalNodes += nodes;
+
+                System.out.printf("  profondeur %d : %12d %s (%.3f s)\n", depth, nodes,
+                        passed ? "OK" : "ÉCHEC, attendu " + expected, elapsed / 1e9);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println();
+        System.out.println(allPassed ? "Toutes les positions sont correctes" : "Des positions sont incorrectes !");
+        System.out.printf("Nœuds: %d en %.3f s (%d nœuds/s)\n", totalNodes, seconds, (long) (totalNodes / seconds));
+        return allPassed;
+    }
+}
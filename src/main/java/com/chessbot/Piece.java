@@ -99,4 +99,14 @@ public final class Piece {
         int type = getType(piece);
         return type == BISHOP || type == QUEEN || type == ROOK;
     }
+
+    // Index de la couleur : 0 pour les blancs, 1 pour les noirs
+    public static int getColorIndex(int piece) {
+        return isWhite(piece) ? 0 : 1;
+    }
+
+    // Index du bitboard de la pièce : 0-5 pour les blancs, 6-11 pour les noirs
+    public static int getBitboardIndex(int piece) {
+        return getColorIndex(piece) * 6 + getType(piece) - 1;
+    }
 }
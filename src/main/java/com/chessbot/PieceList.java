@@ -0,0 +1,52 @@
+package com.chessbot;
+
+// Cases occupées par un type de pièce d'une couleur, sans parcourir tout le plateau.
+// Ajout, retrait et déplacement en temps constant grâce à l'index de chaque case dans la liste.
+public class PieceList {
+    public int[] occupiedSquares;
+    private int[] indexOfSquare; // Position de chaque case dans occupiedSquares
+    private int count;
+
+    public PieceList(int maxPieces) {
+        occupiedSquares = new int[maxPieces];
+        indexOfSquare = new int[64];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int get(int index) {
+        return occupiedSquares[index];
+    }
+
+    public void addPiece(int square) {
+        occupiedSquares[count] = square;
+        indexOfSquare[square] = count;
+        count++;
+    }
+
+    // La dernière case prend la place de la case retirée
+    public void removePiece(int square) {
+        int index = indexOfSquare[square];
+        int lastSquare = occupiedSquares[--count];
+        occupiedSquares[index] = lastSquare;
+        indexOfSquare[lastSquare] = index;
+    }
+
+    public void movePiece(int from, int to) {
+        int index = indexOfSquare[from];
+        occupiedSquares[index] = to;
+        indexOfSquare[to] = index;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    void copyFrom(PieceList other) {
+        System.arraycopy(other.occupiedSquares, 0, occupiedSquares, 0, other.count);
+        System.arraycopy(other.indexOfSquare, 0, indexOfSquare, 0, 64);
+        count = other.count;
+    }
+}
@@ -0,0 +1,137 @@
+package com.chessbot;
+
+// Valeurs des pièces et tables pièce-case pour le milieu et la fin de partie.
+// Les tables sont écrites du point de vue des blancs, a8 en haut à gauche comme sur un diagramme.
+public final class PieceSquareTables {
+    // Poids de chaque type dans la phase de jeu : 24 avec toutes les pièces, 0 avec rois et pions seuls
+    public static final int TOTAL_PHASE = 24;
+    private static final int[] PHASE_WEIGHTS = { 0, 0, 0, 1, 1, 2, 4 }; // Indexé par type
+
+    private static final int[] MIDDLEGAME_VALUES = { 0, 0, 100, 300, 300, 500, 900 };
+    private static final int[] ENDGAME_VALUES = { 0, 0, 120, 290, 310, 520, 900 };
+
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    // En finale, un pion vaut surtout par son avance
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+
+    // Le roi reste à l'abri en milieu de partie et se centralise en finale
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // Valeur + table, du point de vue des blancs (négative pour les noirs), indexées comme les bitboards
+    public static final int[][] middlegame = new int[12][64];
+    public static final int[][] endgame = new int[12][64];
+    public static final int[] phaseWeights = new int[12];
+
+    static {
+        int[][] middlegameTables = { KING_MIDDLEGAME, PAWN_MIDDLEGAME, KNIGHT, BISHOP, ROOK, QUEEN };
+        int[][] endgameTables = { KING_ENDGAME, PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN };
+
+        for (int type = Piece.KING; type <= Piece.QUEEN; type++) {
+            for (int color : new int[] { Piece.WHITE, Piece.BLACK }) {
+                int index = Piece.getBitboardIndex(type | color);
+                int sign = color == Piece.WHITE ? 1 : -1;
+                phaseWeights[index] = PHASE_WEIGHTS[type];
+
+                for (int square = 0; square < 64; square++) {
+                    // Les tables commencent à a8 : une case blanche est retournée, une case noire l'est déjà
+                    int tableIndex = color == Piece.WHITE ? square ^ 56 : square;
+                    middlegame[index][square] = sign
+                            * (MIDDLEGAME_VALUES[type] + middlegameTables[type - 1][tableIndex]);
+                    endgame[index][square] = sign * (ENDGAME_VALUES[type] + endgameTables[type - 1][tableIndex]);
+                }
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    // Mélange des scores de milieu et de fin de partie selon la phase, du point de vue des blancs
+    public static int evaluate(Board board) {
+        int phase = Math.min(board.phase, TOTAL_PHASE);
+        return (board.middlegameScore * phase + board.endgameScore * (TOTAL_PHASE - phase)) / TOTAL_PHASE;
+    }
+}
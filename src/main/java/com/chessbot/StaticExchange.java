@@ -0,0 +1,96 @@
+package com.chessbot;
+
+// Évaluation statique des échanges (SEE) : résultat de la suite de captures sur la case d'arrivée,
+// chaque camp reprenant avec sa pièce la moins précieuse. Les rayons X sont révélés au fil des prises.
+public final class StaticExchange {
+    // Valeurs utilisées pour les échanges, indexées par type (le roi est traité à part)
+    private static final int[] VALUES = { 0, 0, 100, 300, 300, 500, 900 };
+
+    private StaticExchange() {
+    }
+
+    public static int getValue(int pieceType) {
+        return VALUES[pieceType];
+    }
+
+    // Vrai si le coup gagne au moins threshold une fois tous les échanges joués sur la case d'arrivée
+    public static boolean isAtLeast(Board board, int move, int threshold) {
+        int flag = Move.getFlag(move);
+        if (flag == Move.CASTLING) {
+            return threshold <= 0;
+        }
+
+        int from = Move.getStartingSquare(move);
+        int to = Move.getTarget(move);
+        int movedPiece = board.squares[from];
+        long occupied = board.allPiecesBitboard & ~(1L << from);
+        int victimValue;
+        if (flag == Move.EN_PASSANT_CAPTURE) {
+            victimValue = VALUES[Piece.PAWN];
+            occupied &= ~(1L << (to + (Piece.isWhite(movedPiece) ? -8 : 8)));
+        } else {
+            victimValue = VALUES[Piece.getType(board.squares[to])];
+        }
+
+        // balance : gain du camp qui joue si l'échange s'arrête ici, diminué du seuil
+        int balance = victimValue - threshold;
+        if (balance < 0) {
+            return false;
+        }
+        // Même en perdant la pièce jouée, le seuil est atteint
+        balance = (Piece.isType(movedPiece, Piece.KING) ? 0 : VALUES[Piece.getType(movedPiece)]) - balance;
+        if (balance <= 0) {
+            return true;
+        }
+
+        long bishops = board.getPieces(Piece.BISHOP, Piece.WHITE) | board.getPieces(Piece.BISHOP, Piece.BLACK);
+        long rooks = board.getPieces(Piece.ROOK, Piece.WHITE) | board.getPieces(Piece.ROOK, Piece.BLACK);
+        long queens = board.getPieces(Piece.QUEEN, Piece.WHITE) | board.getPieces(Piece.QUEEN, Piece.BLACK);
+        long diagonal = bishops | queens;
+        long orthogonal = rooks | queens;
+
+        long attackers = board.getAttackersTo(to, occupied);
+        int sideToCapture = Piece.getColor(movedPiece);
+        boolean moverWins = true;
+
+        while (true) {
+            sideToCapture = Piece.getOpponentColor(sideToCapture);
+            attackers &= occupied;
+            long sideAttackers = attackers & board.getColorPieces(sideToCapture);
+            if (sideAttackers == 0) {
+                break;
+            }
+            moverWins = !moverWins;
+
+            // Reprise par la pièce la moins précieuse
+            int type = Piece.PAWN;
+            long candidates = 0;
+            for (; type <= Piece.QUEEN; type++) {
+                candidates = sideAttackers & board.getPieces(type, sideToCapture);
+                if (candidates != 0) {
+                    break;
+                }
+            }
+
+            if (candidates == 0) {
+                // Seul le roi peut reprendre : il ne le peut que si l'adversaire n'a plus d'attaquant
+                return (attackers & ~board.getColorPieces(sideToCapture)) != 0 ? !moverWins : moverWins;
+            }
+
+            balance = VALUES[type] - balance;
+            if (balance < (moverWins ? 1 : 0)) {
+                break;
+            }
+
+            occupied ^= Long.lowestOneBit(candidates);
+            if (type == Piece.PAWN || type == Piece.BISHOP || type == Piece.QUEEN) {
+                attackers |= MoveGenerator.getBishopAttacks(to, occupied) & diagonal;
+            }
+            if (type == Piece.ROOK || type == Piece.QUEEN) {
+                attackers |= MoveGenerator.getRookAttacks(to, occupied) & orthogonal;
+            }
+        }
+
+        return moverWins;
+    }
+}
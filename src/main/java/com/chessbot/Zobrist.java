@@ -0,0 +1,64 @@
+package com.chessbot;
+
+import java.util.Random;
+
+public final class Zobrist {
+    // Graine fixe : une position donne toujours la même clé, d'une exécution à l'autre
+    private static final long SEED = 29426028L;
+
+    public static final long[][] pieceKeys = new long[12][64]; // [Piece.getBitboardIndex][case]
+    public static final long[] castlingKeys = new long[16];
+    public static final long[] enPassantFileKeys = new long[8];
+    public static final long sideToMoveKey;
+
+    static {
+        Random random = new Random(SEED);
+        for (int pieceIndex = 0; pieceIndex < 12; pieceIndex++) {
+            for (int square = 0; square < 64; square++) {
+                pieceKeys[pieceIndex][square] = random.nextLong();
+            }
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            castlingKeys[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            enPassantFileKeys[file] = random.nextLong();
+        }
+        sideToMoveKey = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long getPieceKey(int piece, int square) {
+        return pieceKeys[Piece.getBitboardIndex(piece)][square];
+    }
+
+    // Calcul complet de la clé, à utiliser après un chargement de position
+    public static long calculateKey(Game game) {
+        return calculateKey(game.board, game.colorToMove, game.castlingRights, game.enPassantSquare);
+    }
+
+    // Même clé à partir de l'état seul, utilisable avant que la partie soit entièrement construite
+    public static long calculateKey(Board board, int colorToMove, int castlingRights, int enPassantSquare) {
+        long key = 0L;
+
+        for (int pieceIndex = 0; pieceIndex < 12; pieceIndex++) {
+            long pieces = board.pieceBitboards[pieceIndex];
+            while (pieces != 0) {
+                key ^= pieceKeys[pieceIndex][Long.numberOfTrailingZeros(pieces)];
+                pieces &= pieces - 1;
+            }
+        }
+
+        key ^= castlingKeys[castlingRights];
+        if (enPassantSquare != -1) {
+            key ^= enPassantFileKeys[enPassantSquare % 8];
+        }
+        if (colorToMove == Piece.BLACK) {
+            key ^= sideToMoveKey;
+        }
+
+        return key;
+    }
+}
@@ -1,11 +1,22 @@
 package com.chessbot.benchmark;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 public class BenchmarkMain {
     public static void main(String[] args) {
         // Configuration
         // String stockfishPath = "stockfish"; // Chemin vers l'exécutable Stockfish
         String stockfishPath = ".\\stockfish\\stockfish-windows-x86-64-avx2.exe"; // Chemin vers l'exécutable Stockfish
         int threads = Runtime.getRuntime().availableProcessors();
+        // Livre Polyglot (.bin), null pour jouer sans livre
+        String openingBookPath = null;
+        long bookSeed = 42;
+        // Limites de Stockfish : SearchLimits.nodes(100_000) ou depth(8) pour des parties reproductibles,
+        // moveTime(5000), ou clock(60_000, 60_000, 1_000, 1_000, 0) pour une vraie pendule des deux côtés
+        SearchLimits stockfishLimits = UCIEngine.DEFAULT_LIMITS;
+        // Dossier des finales produites par BitbaseGenerator, null pour s'en passer
+        String bitbasePath = null;
 
         // Niveaux à tester
         // int[] botLevels = { 1, 2, 3, 4, 5 };
@@ -20,11 +31,31 @@ public class BenchmarkMain {
         System.out.println("Parties par matchup: " + gamesPerMatchup);
         System.out.println("Threads: " + threads);
         System.out.println("Stockfish: " + stockfishPath);
+        System.out.println("Limites Stockfish: " + stockfishLimits);
         System.out.println();
 
         System.out.println("Démarrage du benchmark...");
         System.out.println("Vérification Stockfish: " + testStockfish(stockfishPath));
         BenchmarkRunner runner = new BenchmarkRunner(stockfishPath, threads);
+        runner.setStockfishLimits(stockfishLimits);
+        if (openingBookPath != null) {
+            try {
+                PolyglotBook book = new PolyglotBook(Paths.get(openingBookPath));
+                runner.setOpeningBook(book, bookSeed);
+                System.out.println("Livre d'ouvertures: " + openingBookPath + " (" + book.getEntryCount() + " entrées)");
+            } catch (IOException e) {
+                System.err.println("Livre d'ouvertures ignoré: " + e.getMessage());
+            }
+        }
+        if (bitbasePath != null) {
+            try {
+                Bitbases bitbases = Bitbases.load(Paths.get(bitbasePath));
+                runner.setBitbases(bitbases);
+                System.out.println("Finales: " + bitbases.getBitbases().size() + " chargées depuis " + bitbasePath);
+            } catch (IOException e) {
+                System.err.println("Finales ignorées: " + e.getMessage());
+            }
+        }
         BenchmarkResults results = runner.runBenchmark(botLevels, stockfishLevels, gamesPerMatchup);
 
         // Afficher les résultats
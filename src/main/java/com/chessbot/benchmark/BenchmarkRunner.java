@@ -4,104 +4,189 @@ import com.chessbot.*;
 import java.util.concurrent.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
+// Chaque partie est une tâche sur son propre thread virtuel : la plupart du temps, une partie attend
+// Stockfish. Le pool de moteurs borne le nombre de parties en cours, et un sémaphore borne le nombre
+// de bots qui calculent en même temps au nombre de cœurs.
 public class BenchmarkRunner {
     private String stockfishPath;
     private ExecutorService executor;
+    private UCIEnginePool enginePool; // Un moteur par partie en cours au plus
+    private Semaphore botPermits; // Bots en train de calculer
+    private PolyglotBook openingBook;
+    private long bookSeed;
+    private Bitbases bitbases;
+    // Limites de Stockfish : par défaut, et par matchup (clé botLevel * 100 + stockfishLevel)
+    private SearchLimits stockfishLimits = UCIEngine.DEFAULT_LIMITS;
+    private final Map<Integer, SearchLimits> matchupLimits = new HashMap<>();
 
     public BenchmarkRunner(String stockfishPath, int threads) {
         this.stockfishPath = stockfishPath;
-        this.executor = Executors.newFixedThreadPool(threads);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.enginePool = new UCIEnginePool(threads);
+        this.botPermits = new Semaphore(Math.max(1, threads));
+    }
+
+    // Livre d'ouvertures partagé par toutes les parties, chaque partie ayant sa propre graine
+    public void setOpeningBook(PolyglotBook openingBook, long seed) {
+        this.openingBook = openingBook;
+        this.bookSeed = seed;
+    }
+
+    // Finales projetées une fois et partagées par tous les bots
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    // nodes ou depth pour des parties reproductibles et rapides, movetime, ou une pendule avec incréments
+    // (SearchLimits.clock) : les deux camps jouent alors à la pendule et le temps dépassé perd
+    public void setStockfishLimits(SearchLimits limits) {
+        this.stockfishLimits = limits;
+    }
+
+    public void setStockfishLimits(int botLevel, int stockfishLevel, SearchLimits limits) {
+        matchupLimits.put(botLevel * 100 + stockfishLevel, limits);
+    }
+
+    private SearchLimits getStockfishLimits(int botLevel, int stockfishLevel) {
+        return matchupLimits.getOrDefault(botLevel * 100 + stockfishLevel, stockfishLimits);
     }
 
     public BenchmarkResults runBenchmark(int[] botLevels, int[] stockfishLevels, int gamesPerMatchup) {
         BenchmarkResults results = new BenchmarkResults();
-        List<Future<MatchupResult>> futures = new ArrayList<>();
+        List<MatchupResult> matchups = new ArrayList<>();
+        List<List<Future<?>>> matchupGames = new ArrayList<>();
 
+        // Toutes les parties de toutes les cases de la grille sont lancées d'un coup :
+        // un seul matchup de 100 parties occupe autant de cœurs qu'un grand tableau
         for (int botLevel : botLevels) {
             for (int stockfishLevel : stockfishLevels) {
-                Future<MatchupResult> future = executor
-                        .submit(() -> runMatchup(botLevel, stockfishLevel, gamesPerMatchup));
-                futures.add(future);
+                MatchupResult matchupResult = new MatchupResult(botLevel, stockfishLevel);
+                List<Future<?>> games = new ArrayList<>();
+                for (int i = 0; i < gamesPerMatchup; i++) {
+                    boolean botPlaysWhite = (i % 2 == 0);
+                    int gameIndex = i;
+                    games.add(executor.submit(() -> matchupResult.addGameResult(
+                            runSingleGame(botLevel, stockfishLevel, botPlaysWhite, gameIndex), botPlaysWhite)));
+                }
+                matchups.add(matchupResult);
+                matchupGames.add(games);
             }
         }
 
-        for (Future<MatchupResult> future : futures) {
-            try {
-                MatchupResult matchupResult = future.get();
-                results.addMatchupResult(matchupResult);
-                System.out.println("Terminé: Bot " + matchupResult.botLevel +
-                        " vs Stockfish " + matchupResult.stockfishLevel +
-                        " - Taux de victoire: " + matchupResult.getWinRate() + "%");
-            } catch (Exception e) {
-                System.err.println("Erreur dans le benchmark: " + e.getMessage());
+        for (int m = 0; m < matchups.size(); m++) {
+            MatchupResult matchupResult = matchups.get(m);
+            for (Future<?> game : matchupGames.get(m)) {
+                try {
+                    game.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return results;
+                } catch (ExecutionException e) {
+                    System.err.println("Erreur dans le benchmark: " + e.getCause());
+                }
             }
+            results.addMatchupResult(matchupResult);
+            System.out.println("Terminé: Bot " + matchupResult.botLevel +
+                    " vs Stockfish " + matchupResult.stockfishLevel +
+                    " - Taux de victoire: " + matchupResult.getWinRate() + "%");
         }
 
         return results;
     }
 
-    private MatchupResult runMatchup(int botLevel, int stockfishLevel, int games) {
-        MatchupResult result = new MatchupResult(botLevel, stockfishLevel);
-
-        for (int i = 0; i < games; i++) {
-            boolean botPlaysWhite = (i % 2 == 0);
-            GameResult gameResult = runSingleGame(botLevel, stockfishLevel, botPlaysWhite);
-            result.addGameResult(gameResult, botPlaysWhite);
+    private GameResult runSingleGame(int botLevel, int stockfishLevel, boolean botPlaysWhite, int gameIndex) {
+        // Moteur déjà lancé et réglé à ce niveau, remis à zéro par ucinewgame.
+        // Les parties en attente d'un moteur n'ont encore rien alloué.
+        UCIEngine stockfish;
+        try {
+            stockfish = enginePool.acquire(stockfishPath, Map.of("Skill Level", String.valueOf(stockfishLevel)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stockfish = null;
+        }
+        if (stockfish == null) {
+            return new GameResult(GameResult.Result.DRAW, 0, "Erreur moteur");
         }
 
-        return result;
-    }
-
-    private GameResult runSingleGame(int botLevel, int stockfishLevel, boolean botPlaysWhite) {
         Game game = new Game(false, botPlaysWhite); // Mode lettres pour simplicité
         SimpleBot bot = new SimpleBot(botLevel);
-        UCIEngine stockfish = new UCIEngine(stockfishPath);
-
-        if (!stockfish.start()) {
-            return new GameResult(GameResult.Result.DRAW, 0, "Erreur moteur");
+        if (openingBook != null) {
+            bot.setOpeningBook(openingBook, bookSeed + 1000L * (botLevel * 100 + stockfishLevel) + gameIndex);
+        }
+        if (bitbases != null) {
+            bot.setBitbases(bitbases);
         }
 
-        stockfish.setSkillLevel(stockfishLevel);
-        stockfish.setTimeLimit(5000); // 5 secondes pour Stockfish niveau 10
+        SearchLimits limits = getStockfishLimits(botLevel, stockfishLevel);
+        GameClock clock = limits.hasClock() ? new GameClock(limits) : null;
 
         int moves = 0;
         final int MAX_MOVES = 200; // Éviter les parties infinies
+        List<String> moveHistory = new ArrayList<>(); // Envoyée à Stockfish à chaque coup
+        GameStatus status = GameStatus.ONGOING;
 
-        System.out.println("Début de la partie: Bot " + botLevel + " vs Stockfish " + stockfishLevel);
+        System.out.println("Début de la partie: Bot " + botLevel + " vs Stockfish " + stockfishLevel + " (" + limits + ")");
         System.out.println("Le bot joue les " + (botPlaysWhite ? "blancs" : "noirs"));
 
         try {
-            while (!game.isGameOver() && moves < MAX_MOVES) {
+            while ((status = game.getStatus()) == GameStatus.ONGOING && moves < MAX_MOVES) {
                 System.out.println("\nCoup #" + moves);
                 System.out.println("Au tour des " + (game.colorToMove == Piece.WHITE ? "blancs" : "noirs"));
                 String move;
+                int mover = game.colorToMove;
+                SearchLimits moveLimits = clock != null ? clock.getLimits(mover) : limits;
+                long moveStart = System.nanoTime();
 
                 if ((game.colorToMove == Piece.WHITE && botPlaysWhite) ||
                         (game.colorToMove == Piece.BLACK && !botPlaysWhite)) {
                     // Tour du bot
                     System.out.println("Bot (" + botLevel + ") réfléchit...");
-                    move = bot.getBestMove(game);
+                    if (clock != null) {
+                        bot.setSearchLimits(moveLimits);
+                    }
+                    // L'attente d'un cœur libre n'est pas décomptée de la pendule du bot
+                    botPermits.acquire();
+                    try {
+                        moveStart = System.nanoTime();
+                        move = bot.getBestMove(game);
+                    } finally {
+                        botPermits.release();
+                    }
                     System.out.println("Bot joue: " + move);
                 } else {
                     // Tour de Stockfish
-                    String fen = gameToFEN(game);
-                    System.out.println("Position envoyée à Stockfish:\n" + fen);
-                    move = stockfish.getBestMove(fen);
+                    move = stockfish.getBestMove(null, moveHistory, moveLimits);
+                    if (stockfish.hasFailed()) {
+                        // Planté ou bloqué : la partie est annulée, le pool remplacera le processus
+                        System.err.println("Partie interrompue, Stockfish hors service: " + stockfish.getFailure());
+                        return new GameResult(GameResult.Result.DRAW, moves, "Erreur moteur: " + stockfish.getFailure());
+                    }
                     System.out.println("Stockfish joue: " + move);
                 }
 
+                if (clock != null && !clock.punch(mover, (System.nanoTime() - moveStart) / 1_000_000L)) {
+                    System.out.println("Temps dépassé pour les " + (mover == Piece.WHITE ? "blancs" : "noirs"));
+                    return new GameResult(mover == Piece.WHITE ? GameResult.Result.BLACK_WIN : GameResult.Result.WHITE_WIN,
+                            moves, "temps dépassé");
+                }
+
                 if (move == null || !game.makeMove(move)) {
-                    System.out.println("Coup invalide ou null: " + move);
-                    break;
+                    // Bug du bot ou réponse incohérente du moteur ("0000" compris) : la partie ne compte pas
+                    String player = mover == (botPlaysWhite ? Piece.WHITE : Piece.BLACK) ? "bot" : "Stockfish";
+                    System.out.println("Coup invalide ou null (" + player + "): " + move);
+                    return new GameResult(GameResult.Result.DRAW, moves, "Erreur: coup invalide (" + player + "): " + move);
                 }
+                moveHistory.add(move);
 
                 game.board.print();
                 moves++;
             }
 
-            if (game.isGameOver()) {
-                if (game.isInCheck(game.colorToMove)) {
+            if (status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE) {
+                if (status == GameStatus.CHECKMATE) {
                     if (game.colorToMove == Piece.WHITE) {
                         String winner = "Noirs";
                         System.out.println("ÉCHEC ET MAT ! Les " + winner + " gagnent !");
@@ -115,125 +200,26 @@ public class BenchmarkRunner {
                     System.out.println("PAT ! Match nul !");
                     return new GameResult(GameResult.Result.DRAW, moves, "pat");
                 }
-            } else if (moves >= MAX_MOVES) {
-                System.out.println("Limite de coups atteinte");
-                return new GameResult(GameResult.Result.DRAW, moves, "Limite de coups atteinte");
+            } else if (status == GameStatus.DRAW) {
+                System.out.println("NULLE ! (50 coups, répétition ou matériel insuffisant)");
+                return new GameResult(GameResult.Result.DRAW, moves, "nulle");
             }
 
-            // Déterminer le résultat
-            if (game.isInCheck(game.colorToMove)) {
-                // Échec et mat
-                boolean whiteWins = (game.colorToMove == Piece.BLACK);
-                return new GameResult(
-                        whiteWins ? GameResult.Result.WHITE_WIN : GameResult.Result.BLACK_WIN,
-                        moves, "Échec et mat");
-            } else {
-                // Pat
-                return new GameResult(GameResult.Result.DRAW, moves, "Pat");
-            }
+            // Partie toujours en cours : seule la limite de coups arrête la boucle
+            System.out.println("Limite de coups atteinte");
+            return new GameResult(GameResult.Result.DRAW, moves, "Limite de coups atteinte");
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new GameResult(GameResult.Result.DRAW, moves, "Benchmark interrompu");
         } finally {
-            stockfish.close();
-        }
-    }
-
-    private String gameToFEN(Game game) {
-        // Conversion simplifiée en FEN
-        StringBuilder fen = new StringBuilder();
-
-        // Position des pièces
-        for (int rank = 7; rank >= 0; rank--) {
-            int emptySquares = 0;
-            for (int file = 0; file < 8; file++) {
-                int piece = game.board.squares[rank * 8 + file];
-                if (piece == Piece.NONE) {
-                    emptySquares++;
-                } else {
-                    if (emptySquares > 0) {
-                        fen.append(emptySquares);
-                        emptySquares = 0;
-                    }
-                    char symbol = pieceToFENChar(piece);
-                    fen.append(symbol);
-                }
-            }
-            if (emptySquares > 0) {
-                fen.append(emptySquares);
-            }
-            if (rank > 0) {
-                fen.append('/');
-            }
-        }
-
-        // Joueur actuel
-        fen.append(game.colorToMove == Piece.WHITE ? " w " : " b ");
-
-        // Roques (simplifié mais correct)
-        boolean wKingside = canCastle(game, Piece.WHITE, true);
-        boolean wQueenside = canCastle(game, Piece.WHITE, false);
-        boolean bKingside = canCastle(game, Piece.BLACK, true);
-        boolean bQueenside = canCastle(game, Piece.BLACK, false);
-
-        if (wKingside || wQueenside || bKingside || bQueenside) {
-            if (wKingside)
-                fen.append('K');
-            if (wQueenside)
-                fen.append('Q');
-            if (bKingside)
-                fen.append('k');
-            if (bQueenside)
-                fen.append('q');
-        } else {
-            fen.append('-');
-        }
-        fen.append(' ');
-
-        // En passant
-        fen.append("- "); // Simplifié mais acceptable pour le benchmark
-
-        // Compteurs
-        fen.append("0 1"); // Demi-coups et nombre de coups
-
-        return fen.toString();
-    }
-
-    private boolean canCastle(Game game, int color, boolean kingside) {
-        int king = Piece.KING | color;
-        int rook = Piece.ROOK | color;
-        int backRank = color == Piece.WHITE ? 0 : 7;
-        int kingSquare = backRank * 8 + 4;
-        int rookSquare = kingside ? backRank * 8 + 7 : backRank * 8;
-
-        return game.board.squares[kingSquare] == king &&
-                game.board.squares[rookSquare] == rook;
-    }
-
-    private char pieceToFENChar(int piece) {
-        char c = ' ';
-        switch (Piece.getType(piece)) {
-            case Piece.KING:
-                c = 'k';
-                break;
-            case Piece.QUEEN:
-                c = 'q';
-                break;
-            case Piece.ROOK:
-                c = 'r';
-                break;
-            case Piece.BISHOP:
-                c = 'b';
-                break;
-            case Piece.KNIGHT:
-                c = 'n';
-                break;
-            case Piece.PAWN:
-                c = 'p';
-                break;
+            enginePool.release(stockfish);
+            bot.shutdown();
         }
-        return Piece.isWhite(piece) ? Character.toUpperCase(c) : c;
     }
 
     public void shutdown() {
         executor.shutdown();
+        enginePool.close();
     }
 }
@@ -0,0 +1,148 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Une finale (par exemple KRK) : gain, nulle ou perte pour le camp au trait, 2 bits par position.
+// Index = camp au trait, puis la case de chaque pièce dans l'ordre de la configuration (6 bits chacune).
+// Fichier : en-tête de 16 octets (magique, nombre de pièces, pièces) suivi des données compactées.
+public class Bitbase {
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int ILLEGAL = 3;
+
+    public static final int MAX_PIECES = 4;
+    static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x42425731; // "BBW1"
+    private static final String PIECE_LETTERS = " KPNBRQ";
+
+    // pieces[0] : roi blanc, pieces[1] : roi noir, puis les autres pièces (blanches d'abord)
+    final int[] pieces;
+    private final ByteBuffer data;
+
+    Bitbase(int[] pieces, ByteBuffer data) {
+        this.pieces = pieces;
+        this.data = data;
+    }
+
+    // Projette un fichier écrit par write ; les lectures sont absolues, le tampon peut être partagé
+    public static Bitbase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Pas une bitbase: " + path);
+            }
+            int[] pieces = new int[buffer.get(4)];
+            for (int i = 0; i < pieces.length; i++) {
+                pieces[i] = buffer.get(5 + i);
+            }
+            if (channel.size() < HEADER_SIZE + (size(pieces.length) + 3) / 4) {
+                throw new IOException("Bitbase tronquée: " + path);
+            }
+            return new Bitbase(pieces, buffer);
+        }
+    }
+
+    // values : une valeur par position (DRAW, WIN, LOSS, ILLEGAL), compactée par 4 dans chaque octet
+    static ByteBuffer pack(int[] pieces, byte[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (values.length + 3) / 4);
+        buffer.putInt(0, MAGIC);
+        buffer.put(4, (byte) pieces.length);
+        for (int i = 0; i < pieces.length; i++) {
+            buffer.put(5 + i, (byte) pieces[i]);
+        }
+        for (int index = 0; index < values.length; index++) {
+            int offset = HEADER_SIZE + (index >>> 2);
+            buffer.put(offset, (byte) (buffer.get(offset) | values[index] << ((index & 3) * 2)));
+        }
+        return buffer;
+    }
+
+    static void write(Path path, ByteBuffer packed) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = packed.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    public int get(int index) {
+        return (data.get(HEADER_SIZE + (index >>> 2)) >>> ((index & 3) * 2)) & 3;
+    }
+
+    public static int size(int pieceCount) {
+        return 2 << (6 * pieceCount);
+    }
+
+    public String getSignature() {
+        return signature(pieces);
+    }
+
+    public Path fileIn(Path directory) {
+        return directory.resolve(getSignature() + ".bb");
+    }
+
+    // KRKN : pièces blanches puis pièces noires, chaque camp commençant par son roi
+    static String signature(int[] pieces) {
+        StringBuilder white = new StringBuilder();
+        StringBuilder black = new StringBuilder();
+        for (int piece : pieces) {
+            (Piece.isWhite(piece) ? white : black).append(PIECE_LETTERS.charAt(Piece.getType(piece)));
+        }
+        return white.append(black).toString();
+    }
+
+    // Inverse de signature, dans l'ordre canonique des pièces
+    static int[] parseSignature(String signature) {
+        String upper = signature.toUpperCase();
+        int blackKing = upper.indexOf('K', 1);
+        if (!upper.startsWith("K") || blackKing < 0 || upper.length() > MAX_PIECES) {
+            throw new IllegalArgumentException("Finale invalide: " + signature);
+        }
+
+        int[] pieces = new int[upper.length()];
+        pieces[0] = Piece.KING | Piece.WHITE;
+        pieces[1] = Piece.KING | Piece.BLACK;
+        int count = 2;
+        for (int i = 1; i < upper.length(); i++) {
+            if (i == blackKing) {
+                continue;
+            }
+            int type = PIECE_LETTERS.indexOf(upper.charAt(i));
+            if (type <= Piece.KING) {
+                throw new IllegalArgumentException("Finale invalide: " + signature);
+            }
+            pieces[count++] = type | (i < blackKing ? Piece.WHITE : Piece.BLACK);
+        }
+        return canonicalOrder(pieces);
+    }
+
+    // Rois, puis pièces blanches, puis pièces noires, les plus fortes d'abord
+    static int[] canonicalOrder(int[] pieces) {
+        int[] ordered = pieces.clone();
+        for (int i = 2; i < ordered.length; i++) {
+            for (int j = i; j > 2 && rank(ordered[j]) < rank(ordered[j - 1]); j--) {
+                int swap = ordered[j];
+                ordered[j] = ordered[j - 1];
+                ordered[j - 1] = swap;
+            }
+        }
+        return ordered;
+    }
+
+    private static int rank(int piece) {
+        if (Piece.isType(piece, Piece.KING)) {
+            return Piece.isWhite(piece) ? -2 : -1;
+        }
+        return (Piece.isWhite(piece) ? 0 : 10) + (Piece.QUEEN - Piece.getType(piece));
+    }
+}
@@ -0,0 +1,422 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Génère les finales jusqu'à 4 pièces par analyse rétrograde itérative, à lancer hors ligne :
+//   java com.chessbot.benchmark.BitbaseGenerator <dossier> [--threads N] KQK KRK KPK KRKN ...
+// Les finales atteintes par capture ou promotion sont générées (ou relues) d'abord.
+// Roques et prise en passant sont ignorés, comme dans les bitbases habituelles.
+public class BitbaseGenerator {
+    private static final byte UNKNOWN = 4;
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int[] PROMOTION_TYPES = { Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT };
+
+    private final Path directory;
+    private final ForkJoinPool pool;
+    private final Bitbases bitbases = new Bitbases();
+
+    public BitbaseGenerator(Path directory, int threads) {
+        this.directory = directory;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: BitbaseGenerator <dossier> [--threads N] [finales...]");
+            return;
+        }
+
+        Path directory = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> signatures = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                signatures.add(args[i]);
+            }
+        }
+        if (signatures.isEmpty()) {
+            signatures = List.of("KQK", "KRK", "KPK");
+        }
+
+        Files.createDirectories(directory);
+        BitbaseGenerator generator = new BitbaseGenerator(directory, threads);
+        try {
+            for (String signature : signatures) {
+                generator.generate(Bitbase.parseSignature(signature));
+            }
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    public Bitbases getBitbases() {
+        return bitbases;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Génère la finale et ses dépendances, sauf celles déjà présentes dans le dossier
+    public void generate(int[] pieces) throws IOException {
+        pieces = canonical(pieces);
+        if (bitbases.contains(pieces)) {
+            return;
+        }
+
+        Path file = directory.resolve(Bitbase.signature(pieces) + ".bb");
+        if (Files.exists(file)) {
+            bitbases.add(Bitbase.open(file));
+            return;
+        }
+
+        for (int i = 2; i < pieces.length; i++) {
+            generate(without(pieces, i));
+            if (Piece.isType(pieces[i], Piece.PAWN)) {
+                for (int type : PROMOTION_TYPES) {
+                    int[] promoted = pieces.clone();
+                    promoted[i] = type | Piece.getColor(pieces[i]);
+                    generate(promoted);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        byte[] values = solve(pieces);
+
+        ByteBuffer packed = Bitbase.pack(pieces, values);
+        Bitbase.write(file, packed);
+        bitbases.add(new Bitbase(pieces, packed));
+
+        long[] counts = new long[5];
+        for (byte value : values) {
+            counts[value]++;
+        }
+        System.out.printf("%s: %d gains, %d nulles, %d pertes, %d illégales (%.1f s)%n",
+                Bitbase.signature(pieces), counts[Bitbase.WIN], counts[Bitbase.DRAW], counts[Bitbase.LOSS],
+                counts[Bitbase.ILLEGAL], (System.nanoTime() - start) / 1e9);
+    }
+
+    // Passes successives jusqu'au point fixe : une position est gagnée si un coup mène à une perte adverse,
+    // perdue si tous ses coups mènent à un gain adverse. Ce qui reste indéterminé est nul.
+    private byte[] solve(int[] pieces) {
+        byte[] values = new byte[Bitbase.size(pieces.length)];
+        Arrays.fill(values, UNKNOWN);
+
+        runPass(pieces, values, true);
+        while (runPass(pieces, values, false) > 0) {
+            // Chaque passe repousse l'horizon d'un coup
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == UNKNOWN) {
+                values[i] = Bitbase.DRAW;
+            }
+        }
+        return values;
+    }
+
+    // Les blocs sont répartis entre les threads ; un résultat écrit par un autre thread
+    // pendant la passe est toujours exact, donc le lire tôt ne fait qu'accélérer la convergence.
+    private long runPass(int[] pieces, byte[] values, boolean firstPass) {
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int start = 0; start < values.length; start += CHUNK_SIZE) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(values.length, start + CHUNK_SIZE);
+            tasks.add(() -> new Worker(pieces, values).run(chunkStart, chunkEnd, firstPass));
+        }
+
+        long changes = 0;
+        try {
+            for (Future<Long> result : pool.invokeAll(tasks)) {
+                changes += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur de génération", e.getCause());
+        }
+        return changes;
+    }
+
+    // Position courante d'un thread : une case par pièce de la configuration
+    private final class Worker {
+        private final int[] pieces;
+        private final byte[] values;
+        private final int count;
+        private final int[] squares;
+        private final int[] childPieces;
+        private final int[] childSquares;
+        private int colorToMove;
+        private int captured; // Pièce prise par le coup en cours, -1 si aucune
+
+        Worker(int[] pieces, byte[] values) {
+            this.pieces = pieces;
+            this.values = values;
+            this.count = pieces.length;
+            this.squares = new int[count];
+            this.childPieces = new int[count];
+            this.childSquares = new int[count];
+        }
+
+        long run(int start, int end, boolean firstPass) {
+            long changes = 0;
+            for (int index = start; index < end; index++) {
+                if (values[index] != UNKNOWN) {
+                    continue;
+                }
+                decode(index);
+                if (firstPass && !isLegalPosition()) {
+                    values[index] = Bitbase.ILLEGAL;
+                    changes++;
+                    continue;
+                }
+                int value = evaluate();
+                if (value != UNKNOWN) {
+                    values[index] = (byte) value;
+                    changes++;
+                }
+            }
+            return changes;
+        }
+
+        private void decode(int index) {
+            for (int i = count - 1; i >= 0; i--) {
+                squares[i] = index & 63;
+                index >>>= 6;
+            }
+            colorToMove = index == 0 ? Piece.WHITE : Piece.BLACK;
+            captured = -1;
+        }
+
+        private int encode(int color) {
+            int index = color == Piece.WHITE ? 0 : 1;
+            for (int i = 0; i < count; i++) {
+                index = (index << 6) | squares[i];
+            }
+            return index;
+        }
+
+        // Cases distinctes, pas de pion sur la première ou la dernière rangée, camp qui n'a pas le trait hors d'échec
+        private boolean isLegalPosition() {
+            long occupied = 0L;
+            for (int i = 0; i < count; i++) {
+                long bit = 1L << squares[i];
+                if ((occupied & bit) != 0) {
+                    return false;
+                }
+                occupied |= bit;
+                int rank = squares[i] / 8;
+                if (Piece.isType(pieces[i], Piece.PAWN) && (rank == 0 || rank == 7)) {
+                    return false;
+                }
+            }
+            int opponent = Piece.getOpponentColor(colorToMove);
+            return !isAttacked(kingSquare(opponent), colorToMove, occupied);
+        }
+
+        // WIN, LOSS, ou UNKNOWN tant que les positions suivantes ne sont pas toutes connues
+        private int evaluate() {
+            boolean allChildrenWon = true;
+            boolean hasMove = false;
+            int opponent = Piece.getOpponentColor(colorToMove);
+            long occupied = occupancy();
+
+            for (int i = 0; i < count; i++) {
+                int piece = pieces[i];
+                if (Piece.getColor(piece) != colorToMove) {
+                    continue;
+                }
+                int from = squares[i];
+                long targets = targets(piece, from, occupied);
+
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+
+                    captured = pieceAt(to);
+                    squares[i] = to;
+                    long childOccupied = (occupied & ~(1L << from)) | (1L << to);
+                    if (isAttacked(kingSquare(colorToMove), opponent, childOccupied)) {
+                        squares[i] = from;
+                        captured = -1;
+                        continue;
+                    }
+                    hasMove = true;
+
+                    boolean promotion = Piece.isType(piece, Piece.PAWN) && (to / 8 == 0 || to / 8 == 7);
+                    for (int p = 0; p < (promotion ? PROMOTION_TYPES.length : 1); p++) {
+                        int childPiece = promotion ? PROMOTION_TYPES[p] | colorToMove : piece;
+                        int value = captured >= 0 || promotion ? probeOther(i, childPiece, opponent)
+                                : values[encode(opponent)];
+                        if (value == Bitbase.LOSS) {
+                            squares[i] = from;
+                            captured = -1;
+                            return Bitbase.WIN;
+                        }
+                        if (value != Bitbase.WIN) {
+                            allChildrenWon = false;
+                        }
+                    }
+
+                    squares[i] = from;
+                    captured = -1;
+                }
+            }
+
+            if (!hasMove) {
+                return isAttacked(kingSquare(colorToMove), opponent, occupied) ? Bitbase.LOSS : Bitbase.DRAW;
+            }
+            return allChildrenWon ? Bitbase.LOSS : UNKNOWN;
+        }
+
+        // Position après une capture ou une promotion : elle appartient à une autre finale, déjà générée
+        private int probeOther(int moved, int movedPiece, int color) {
+            int childCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (i != captured) {
+                    childPieces[childCount] = i == moved ? movedPiece : pieces[i];
+                    childSquares[childCount] = squares[i];
+                    childCount++;
+                }
+            }
+            int value = bitbases.probe(childPieces, childSquares, childCount, color);
+            if (value == Bitbases.UNKNOWN) {
+                throw new IllegalStateException("Finale manquante pour " + Bitbase.signature(pieces));
+            }
+            return value;
+        }
+
+        // Coups pseudo-légaux de la pièce : captures du roi adverse exclues (position légale)
+        private long targets(int piece, int square, long occupied) {
+            int color = Piece.getColor(piece);
+            long own = 0L;
+            long enemy = 0L;
+            for (int i = 0; i < count; i++) {
+                if (Piece.getColor(pieces[i]) == color) {
+                    own |= 1L << squares[i];
+                } else if (!Piece.isType(pieces[i], Piece.KING)) {
+                    enemy |= 1L << squares[i];
+                }
+            }
+
+            if (Piece.isType(piece, Piece.PAWN)) {
+                int forward = color == Piece.WHITE ? 8 : -8;
+                long targets = MoveGenerator.getPawnAttacks(square, color) & enemy;
+                int push = square + forward;
+                if ((occupied & (1L << push)) == 0) {
+                    targets |= 1L << push;
+                    int startRank = color == Piece.WHITE ? 1 : 6;
+                    if (square / 8 == startRank && (occupied & (1L << (push + forward))) == 0) {
+                        targets |= 1L << (push + forward);
+                    }
+                }
+                return targets;
+            }
+            return attacks(piece, square, occupied) & ~own & (~occupied | enemy);
+        }
+
+        private boolean isAttacked(int square, int byColor, long occupied) {
+            for (int i = 0; i < count; i++) {
+                if (i != captured && Piece.getColor(pieces[i]) == byColor
+                        && (attacks(pieces[i], squares[i], occupied) & (1L << square)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long attacks(int piece, int square, long occupied) {
+            switch (Piece.getType(piece)) {
+                case Piece.PAWN:
+                    return MoveGenerator.getPawnAttacks(square, Piece.getColor(piece));
+                case Piece.KNIGHT:
+                    return MoveGenerator.getKnightAttacks(square);
+                case Piece.BISHOP:
+                    return MoveGenerator.getBishopAttacks(square, occupied);
+                case Piece.ROOK:
+                    return MoveGenerator.getRookAttacks(square, occupied);
+                case Piece.QUEEN:
+                    return MoveGenerator.getRookAttacks(square, occupied) | MoveGenerator.getBishopAttacks(square, occupied);
+                default:
+                    return MoveGenerator.getKingAttacks(square);
+            }
+        }
+
+        private long occupancy() {
+            long occupied = 0L;
+            for (int square : squares) {
+                occupied |= 1L << square;
+            }
+            return occupied;
+        }
+
+        private int kingSquare(int color) {
+            return squares[color == Piece.WHITE ? 0 : 1];
+        }
+
+        // Index de la pièce (hors pièce prise) sur la case, -1 si vide
+        private int pieceAt(int square) {
+            for (int i = 0; i < count; i++) {
+                if (squares[i] == square) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Le camp le plus fort joue les blancs : KKR est stockée comme KRK, KPKQ comme KQKP
+    static int[] canonical(int[] pieces) {
+        int[] swapped = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            swapped[i] = Bitbases.swapColor(pieces[i]);
+        }
+        swapped[0] = pieces[0];
+        swapped[1] = pieces[1];
+        int[] ordered = Bitbase.canonicalOrder(pieces);
+        int[] swappedOrdered = Bitbase.canonicalOrder(swapped);
+        int balance = materialBalance(ordered);
+        if (balance != 0) {
+            return balance > 0 ? ordered : swappedOrdered;
+        }
+        return Bitbase.signature(ordered).compareTo(Bitbase.signature(swappedOrdered)) >= 0 ? ordered : swappedOrdered;
+    }
+
+    private static int materialBalance(int[] pieces) {
+        int balance = 0;
+        for (int piece : pieces) {
+            if (!Piece.isType(piece, Piece.KING)) {
+                balance += Piece.isWhite(piece) ? StaticExchange.getValue(Piece.getType(piece))
+                        : -StaticExchange.getValue(Piece.getType(piece));
+            }
+        }
+        return balance;
+    }
+
+    private static int[] without(int[] pieces, int removed) {
+        int[] result = new int[pieces.length - 1];
+        for (int i = 0, j = 0; i < pieces.length; i++) {
+            if (i != removed) {
+                result[j++] = pieces[i];
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,162 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Ensemble des finales disponibles, indexées par les pièces autres que les rois.
+// Une finale sert aussi couleurs inversées (KKR lit KRK en retournant le plateau).
+public class Bitbases {
+    public static final int UNKNOWN = -1;
+
+    // Code d'une pièce autre qu'un roi : 1-5 pour les blancs, 6-10 pour les noirs, 0 pour aucune
+    private static final int CODES = 11;
+
+    private final Bitbase[][] tables = new Bitbase[CODES][CODES];
+    private final boolean[][] mirrored = new boolean[CODES][CODES];
+    private final List<Bitbase> bitbases = new ArrayList<>();
+
+    // Projette tous les fichiers .bb du dossier
+    public static Bitbases load(Path directory) throws IOException {
+        Bitbases result = new Bitbases();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bb")) {
+            for (Path file : files) {
+                result.add(Bitbase.open(file));
+            }
+        }
+        return result;
+    }
+
+    public void add(Bitbase bitbase) {
+        bitbases.add(bitbase);
+        int first = 0;
+        int second = 0;
+        int firstMirrored = 0;
+        int secondMirrored = 0;
+        for (int i = 2; i < bitbase.pieces.length; i++) {
+            int piece = bitbase.pieces[i];
+            if (i == 2) {
+                first = code(piece);
+                firstMirrored = code(swapColor(piece));
+            } else {
+                second = code(piece);
+                secondMirrored = code(swapColor(piece));
+            }
+        }
+
+        register(first, second, bitbase, false);
+        if (!contains(firstMirrored, secondMirrored)) {
+            register(firstMirrored, secondMirrored, bitbase, true);
+        }
+    }
+
+    public List<Bitbase> getBitbases() {
+        return bitbases;
+    }
+
+    // Vrai si la finale (dans un sens ou dans l'autre) est disponible
+    public boolean contains(int[] pieces) {
+        return contains(pieces.length > 2 ? code(pieces[2]) : 0, pieces.length > 3 ? code(pieces[3]) : 0);
+    }
+
+    // Gain, nulle ou perte pour le camp au trait, UNKNOWN hors des finales chargées.
+    // Quelques lectures de tableaux, sans allocation : appelable à chaque nœud de la recherche.
+    public int probe(Game game) {
+        Board board = game.board;
+        long occupied = board.allPiecesBitboard;
+        if (Long.bitCount(occupied) > Bitbase.MAX_PIECES || game.castlingRights != 0) {
+            return UNKNOWN;
+        }
+        // Les finales ignorent la prise en passant : on ne répond pas si elle est possible
+        if (game.enPassantSquare != -1
+                && (MoveGenerator.getPawnAttacks(game.enPassantSquare, Piece.getOpponentColor(game.colorToMove))
+                        & board.getPieces(Piece.PAWN, game.colorToMove)) != 0) {
+            return UNKNOWN;
+        }
+
+        int first = 0;
+        int second = 0;
+        long others = occupied & ~(board.getPieces(Piece.KING, Piece.WHITE) | board.getPieces(Piece.KING, Piece.BLACK));
+        while (others != 0) {
+            int code = code(board.squares[Long.numberOfTrailingZeros(others)]);
+            others &= others - 1;
+            if (first == 0) {
+                first = code;
+            } else {
+                second = code;
+            }
+        }
+
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        Bitbase bitbase = tables[low][high];
+        if (bitbase == null) {
+            return UNKNOWN;
+        }
+        boolean mirror = mirrored[low][high];
+
+        int[] pieces = bitbase.pieces;
+        int index = (game.colorToMove == Piece.WHITE) != mirror ? 0 : 1;
+        for (int i = 0; i < pieces.length; i++) {
+            int piece = mirror ? swapColor(pieces[i]) : pieces[i];
+            // Deux pièces identiques : la seconde prend la seconde case de la liste
+            int occurrence = i > 2 && pieces[i] == pieces[i - 1] ? 1 : 0;
+            int square = board.getPieceList(Piece.getType(piece), Piece.getColor(piece)).get(occurrence);
+            index = (index << 6) | (mirror ? square ^ 56 : square);
+        }
+
+        int value = bitbase.get(index);
+        return value == Bitbase.ILLEGAL ? UNKNOWN : value;
+    }
+
+    // Même chose pour une position donnée pièce par pièce (utilisé par le générateur)
+    int probe(int[] pieces, int[] squares, int count, int colorToMove) {
+        int first = count > 2 ? code(pieces[2]) : 0;
+        int second = count > 3 ? code(pieces[3]) : 0;
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        Bitbase bitbase = tables[low][high];
+        if (bitbase == null) {
+            return UNKNOWN;
+        }
+        boolean mirror = mirrored[low][high];
+
+        int index = (colorToMove == Piece.WHITE) != mirror ? 0 : 1;
+        long used = 0L;
+        for (int piece : bitbase.pieces) {
+            int wanted = mirror ? swapColor(piece) : piece;
+            for (int j = 0; j < count; j++) {
+                if (pieces[j] == wanted && (used & (1L << j)) == 0) {
+                    used |= 1L << j;
+                    index = (index << 6) | (mirror ? squares[j] ^ 56 : squares[j]);
+                    break;
+                }
+            }
+        }
+        return bitbase.get(index);
+    }
+
+    private boolean contains(int first, int second) {
+        return tables[Math.min(first, second)][Math.max(first, second)] != null;
+    }
+
+    private void register(int first, int second, Bitbase bitbase, boolean mirror) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        tables[low][high] = bitbase;
+        mirrored[low][high] = mirror;
+    }
+
+    private static int code(int piece) {
+        return Piece.getColorIndex(piece) * 5 + Piece.getType(piece) - 1;
+    }
+
+    static int swapColor(int piece) {
+        return Piece.getType(piece) | Piece.getOpponentColor(piece);
+    }
+}
@@ -0,0 +1,47 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+// Pendule d'une partie du benchmark : temps restant des deux camps, incréments et contrôles
+// de movestogo coups (le temps de base est rajouté à chaque contrôle atteint).
+public class GameClock {
+    private final SearchLimits timeControl;
+    private final long[] remainingMillis = new long[2];
+    private final int[] movesPlayed = new int[2];
+
+    public GameClock(SearchLimits timeControl) {
+        this.timeControl = timeControl;
+        remainingMillis[0] = timeControl.whiteTimeMillis;
+        remainingMillis[1] = timeControl.blackTimeMillis;
+    }
+
+    // Limites du coup à jouer par color, avec l'état actuel de la pendule
+    public SearchLimits getLimits(int color) {
+        int movesToGo = 0;
+        if (timeControl.movesToGo > 0) {
+            movesToGo = timeControl.movesToGo - movesPlayed[Piece.getColorIndex(color)] % timeControl.movesToGo;
+        }
+        return new SearchLimits(0, 0, 0, true, remainingMillis[0], remainingMillis[1],
+                timeControl.whiteIncrementMillis, timeControl.blackIncrementMillis, movesToGo);
+    }
+
+    // Décompte le temps du coup joué par color ; faux si sa pendule est tombée
+    public boolean punch(int color, long elapsedMillis) {
+        int index = Piece.getColorIndex(color);
+        remainingMillis[index] -= elapsedMillis;
+        if (remainingMillis[index] < 0) {
+            return false;
+        }
+
+        remainingMillis[index] += index == 0 ? timeControl.whiteIncrementMillis : timeControl.blackIncrementMillis;
+        movesPlayed[index]++;
+        if (timeControl.movesToGo > 0 && movesPlayed[index] % timeControl.movesToGo == 0) {
+            remainingMillis[index] += index == 0 ? timeControl.whiteTimeMillis : timeControl.blackTimeMillis;
+        }
+        return true;
+    }
+
+    public long getRemainingMillis(int color) {
+        return remainingMillis[Piece.getColorIndex(color)];
+    }
+}
@@ -0,0 +1,116 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Lazy SMP : tous les threads cherchent la même racine et partagent la table de transposition.
+// Le thread principal impose les limites et donne le résultat, les auxiliaires remplissent la table.
+public class LazySmpSearch {
+    private final TranspositionTable transpositionTable;
+    private final Searcher[] searchers; // searchers[0] = thread principal
+    private final ExecutorService helpers;
+
+    public LazySmpSearch(TranspositionTable transpositionTable, int threads) {
+        this.transpositionTable = transpositionTable;
+        this.searchers = new Searcher[Math.max(1, threads)];
+        for (int i = 0; i < searchers.length; i++) {
+            searchers[i] = new Searcher(transpositionTable);
+        }
+
+        if (searchers.length > 1) {
+            helpers = Executors.newFixedThreadPool(searchers.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "lazy-smp-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            helpers = null;
+        }
+    }
+
+    public int search(Game game, SearchLimits limits) {
+        transpositionTable.newSearch();
+        for (Searcher searcher : searchers) {
+            searcher.resetStop();
+        }
+
+        // Chaque auxiliaire travaille sur sa propre copie de la partie, sans limite
+        SearchLimits helperLimits = new SearchLimits(SearchLimits.MAX_DEPTH, 0, 0);
+        List<Future<?>> helperTasks = new ArrayList<>();
+        for (int i = 1; i < searchers.length; i++) {
+            Searcher helper = searchers[i];
+            Game helperGame = game.copy();
+            int threadIndex = i;
+            helperTasks.add(helpers.submit(() -> helper.iterate(helperGame, helperLimits, threadIndex)));
+        }
+
+        int bestMove = searchers[0].iterate(game, limits, 0);
+
+        for (int i = 1; i < searchers.length; i++) {
+            searchers[i].stop();
+        }
+        for (Future<?> task : helperTasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Erreur dans un thread de recherche: " + e.getCause());
+            }
+        }
+
+        return bestMove;
+    }
+
+    // Finales partagées par tous les threads (les lectures de la projection sont absolues)
+    public void setBitbases(Bitbases bitbases) {
+        for (Searcher searcher : searchers) {
+            searcher.setBitbases(bitbases);
+        }
+    }
+
+    // Ponder : seul le principal regarde la pendule, les auxiliaires s'arrêtent avec lui
+    public void setPondering(boolean pondering) {
+        searchers[0].setPondering(pondering);
+    }
+
+    public void ponderHit(long moveTimeMillis) {
+        searchers[0].ponderHit(moveTimeMillis);
+    }
+
+    public void setInfoOutput(PrintStream infoOutput) {
+        searchers[0].setInfoOutput(infoOutput);
+    }
+
+    // Arrête la recherche en cours (le thread principal arrête ensuite les auxiliaires)
+    public void stop() {
+        searchers[0].stop();
+    }
+
+    public Searcher getMainSearcher() {
+        return searchers[0];
+    }
+
+    public int getThreads() {
+        return searchers.length;
+    }
+
+    // Nœuds cherchés par tous les threads lors de la dernière recherche
+    public long getNodes() {
+        long nodes = 0;
+        for (Searcher searcher : searchers) {
+            nodes += searcher.getNodes();
+        }
+        return nodes;
+    }
+
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.chessbot.benchmark;
 import java.util.ArrayList;
 import java.util.List;
 
+// Alimenté par les parties d'un même matchup, qui se terminent en parallèle
 public class MatchupResult {
     public final int botLevel;
     public final int stockfishLevel;
@@ -17,7 +18,7 @@ public class MatchupResult {
         this.gameResults = new ArrayList<>();
     }
 
-    public void addGameResult(GameResult result, boolean botPlaysWhite) {
+    public synchronized void addGameResult(GameResult result, boolean botPlaysWhite) {
         gameResults.add(result);
 
         switch (result.getResult()) {
@@ -39,24 +40,24 @@ public class MatchupResult {
         }
     }
 
-    public double getWinRate() {
+    public synchronized double getWinRate() {
         int totalGames = gameResults.size();
         return totalGames > 0 ? (double) botWins / totalGames * 100 : 0;
     }
 
-    public int getBotWins() {
+    public synchronized int getBotWins() {
         return botWins;
     }
 
-    public int getStockfishWins() {
+    public synchronized int getStockfishWins() {
         return stockfishWins;
     }
 
-    public int getDraws() {
+    public synchronized int getDraws() {
         return draws;
     }
 
-    public int getTotalGames() {
+    public synchronized int getTotalGames() {
         return gameResults.size();
     }
 }
@@ -0,0 +1,164 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Microbenchmarks des chemins critiques (vitesse et allocations), indépendants des parties contre Stockfish.
+// Pour chaque opération : préchauffage, puis plusieurs itérations mesurées sur un jeu de positions fixe.
+public class MicroBenchmarkMain {
+    private static final String[] OPENING = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "rnbqkb1r/pp2pppp/3p1n2/8/3NP3/8/PPP2PPP/RNBQKB1R w KQkq - 1 5"
+    };
+    private static final String[] MIDDLEGAME = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r2q1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP2BPPP/R2Q1RK1 b - - 0 9",
+            "r1bq1rk1/ppp2ppp/2np1n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 7"
+    };
+    private static final String[] ENDGAME = {
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "8/8/4k3/8/2p5/8/B2K4/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+            "8/5pk1/6p1/8/3P4/6P1/5PK1/8 b - - 0 40"
+    };
+
+    // Opération mesurée sur la position d'index donné
+    private interface Operation {
+        long run(int position);
+    }
+
+    private static volatile long sink; // Empêche le JIT d'éliminer les résultats
+
+    private static double warmupSeconds = 1.0;
+    private static double iterationSeconds = 1.0;
+    private static int iterations = 5;
+
+    public static void main(String[] args) {
+        String filter = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--warmup") && i + 1 < args.length) {
+                warmupSeconds = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--time") && i + 1 < args.length) {
+                iterationSeconds = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--iterations") && i + 1 < args.length) {
+                iterations = Integer.parseInt(args[++i]);
+            } else {
+                filter = args[i];
+            }
+        }
+
+        System.out.println("=== MICROBENCHMARKS ===");
+        System.out.println("Préchauffage: " + warmupSeconds + " s, " + iterations + " itérations de "
+                + iterationSeconds + " s");
+        System.out.println();
+        System.out.printf("%-36s %-11s %14s %10s %12s\n", "Opération", "Phase", "ops/s", "± %", "octets/op");
+        System.out.println("-".repeat(87));
+
+        String[][] phases = { OPENING, MIDDLEGAME, ENDGAME };
+        String[] phaseNames = { "ouverture", "milieu", "finale" };
+
+        for (int p = 0; p < phases.length; p++) {
+            Game[] games = loadGames(phases[p]);
+            String[] fens = phases[p];
+            MoveGenerator moveGenerator = new MoveGenerator();
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            Board board = new Board(false);
+
+            Map<String, Operation> benchmarks = new LinkedHashMap<>();
+            benchmarks.put("MoveGenerator.generateMoves(int[])", i -> moveGenerator.generateMoves(games[i], moves));
+            benchmarks.put("MoveGenerator.generateMoves(List)", i -> moveGenerator.generateMoves(games[i]).size());
+            benchmarks.put("Game.isSquareAttacked", i -> {
+                long attacked = 0;
+                for (int square = 0; square < 64; square += 9) {
+                    if (games[i].isSquareAttacked(square, Piece.BLACK)) {
+                        attacked++;
+                    }
+                }
+                return attacked;
+            });
+            benchmarks.put("Game.isInCheck", i -> games[i].isInCheck(games[i].colorToMove) ? 1 : 0);
+            benchmarks.put("Game.isGameOver", i -> games[i].isGameOver() ? 1 : 0);
+            benchmarks.put("Game.getStatus", i -> games[i].getStatus().ordinal());
+            benchmarks.put("SimpleBot.evaluatePosition", i -> SimpleBot.evaluatePosition(games[i]));
+            benchmarks.put("Board.loadPositionFromFEN", i -> {
+                board.loadPositionFromFEN(fens[i]);
+                return board.allPiecesBitboard;
+            });
+
+            for (Map.Entry<String, Operation> benchmark : benchmarks.entrySet()) {
+                if (filter == null || benchmark.getKey().contains(filter)) {
+                    run(benchmark.getKey(), phaseNames[p], games.length, benchmark.getValue());
+                }
+            }
+        }
+    }
+
+    private static Game[] loadGames(String[] fens) {
+        Game[] games = new Game[fens.length];
+        for (int i = 0; i < fens.length; i++) {
+            games[i] = new Game(false, true);
+            games[i].loadPositionFromFEN(fens[i]);
+        }
+        return games;
+    }
+
+    private static void run(String name, String phase, int positions, Operation operation) {
+        // Préchauffage pour laisser le JIT compiler le chemin mesuré
+        measure(positions, operation, warmupSeconds);
+
+        double[] opsPerSecond = new double[iterations];
+        double bytesPerOp = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            long[] result = measure(positions, operation, iterationSeconds);
+            long allocated = allocatedBytes() - allocatedBefore;
+            opsPerSecond[i] = result[0] / (result[1] / 1e9);
+            bytesPerOp += (double) allocated / result[0] / iterations;
+        }
+
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value / iterations;
+        }
+        double variance = 0;
+        for (double value : opsPerSecond) {
+            variance += (value - mean) * (value - mean) / iterations;
+        }
+
+        System.out.printf("%-36s %-11s %14.0f %10.1f %12.1f\n",
+                name, phase, mean, Math.sqrt(variance) / mean * 100, bytesPerOp);
+    }
+
+    // Renvoie { opérations, durée en ns }, par lots d'un passage sur toutes les positions
+    private static long[] measure(int positions, Operation operation, double seconds) {
+        long duration = (long) (seconds * 1e9);
+        long operations = 0;
+        long accumulator = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < positions; i++) {
+                accumulator += operation.run(i);
+            }
+            operations += positions;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < duration);
+        sink = accumulator;
+        return new long[] { operations, elapsed };
+    }
+
+    // Octets alloués par le thread courant (équivalent de -prof gc de JMH)
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+// Ordre d'exploration des coups : coup de la table, captures (MVV-LVA), coups killers, historique.
+// Un tri par sélection partiel sort les coups un par un : après une coupure, le reste n'est jamais trié.
+public class MoveOrdering {
+    private static final int HASH_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 500_000;
+    private static final int PROMOTION_SCORE = 400_000;
+    private static final int FIRST_KILLER_SCORE = 300_000;
+    private static final int SECOND_KILLER_SCORE = 290_000;
+    private static final int LOSING_CAPTURE_SCORE = -500_000; // Captures perdantes à la SEE, après les coups calmes
+    private static final int MAX_HISTORY = 100_000; // Reste sous les killers
+
+    // Victime la plus précieuse, attaquant le moins précieux, indexé par type
+    private static final int[] VICTIM_VALUES = { 0, 0, 100, 300, 300, 500, 900 };
+
+    private final int[][] killers; // Deux coups calmes ayant causé une coupure, par ply
+    private final int[][][] history = new int[2][64][64]; // [index couleur][départ][arrivée]
+    private final int[][] scores; // Scores des coups de chaque ply, en parallèle du tampon de coups
+
+    public MoveOrdering(int maxPly) {
+        killers = new int[maxPly][2];
+        scores = new int[maxPly][MoveGenerator.MAX_MOVES];
+    }
+
+    public void scoreMoves(Game game, int[] moves, int count, int hashMove, int ply) {
+        int[] plyScores = scores[ply];
+        int[][] historyByFrom = history[Piece.getColorIndex(game.colorToMove)];
+        int[] squares = game.board.squares;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == hashMove) {
+                plyScores[i] = HASH_MOVE_SCORE;
+                continue;
+            }
+
+            int startSquare = Move.getStartingSquare(move);
+            int targetSquare = Move.getTarget(move);
+            if (squares[targetSquare] != Piece.NONE || Move.getFlag(move) == Move.EN_PASSANT_CAPTURE) {
+                plyScores[i] = (StaticExchange.isAtLeast(game.board, move, 0) ? CAPTURE_SCORE : LOSING_CAPTURE_SCORE)
+                        + mvvLva(game.board, move);
+            } else if (Move.isPromotion(move)) {
+                plyScores[i] = PROMOTION_SCORE + VICTIM_VALUES[Move.getPromotionPieceType(move)];
+            } else if (move == killers[ply][0]) {
+                plyScores[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                plyScores[i] = SECOND_KILLER_SCORE;
+            } else {
+                plyScores[i] = historyByFrom[startSquare][targetSquare];
+            }
+        }
+    }
+
+    // Victime la plus précieuse d'abord, puis attaquant le moins précieux (promotions : valeur de la pièce obtenue)
+    public static int mvvLva(Board board, int move) {
+        int victim = board.squares[Move.getTarget(move)];
+        int victimValue = victim != Piece.NONE ? VICTIM_VALUES[Piece.getType(victim)]
+                : Move.getFlag(move) == Move.EN_PASSANT_CAPTURE ? VICTIM_VALUES[Piece.PAWN] : 0;
+        if (Move.isPromotion(move)) {
+            victimValue += VICTIM_VALUES[Move.getPromotionPieceType(move)];
+        }
+        return victimValue * 8 - Piece.getType(board.squares[Move.getStartingSquare(move)]);
+    }
+
+    public int getKiller(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    public int getHistory(Game game, int move) {
+        return history[Piece.getColorIndex(game.colorToMove)][Move.getStartingSquare(move)][Move.getTarget(move)];
+    }
+
+    // Amène le meilleur coup restant à l'index donné et le renvoie
+    public int pickMove(int[] moves, int count, int index, int ply) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = plyScores[best];
+        plyScores[best] = plyScores[index];
+        plyScores[index] = score;
+        return move;
+    }
+
+    // Un coup calme a causé une coupure beta
+    public void recordCutoff(Game game, int move, int depth, int ply) {
+        if (move != killers[ply][0]) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int[] entry = history[Piece.getColorIndex(game.colorToMove)][Move.getStartingSquare(move)];
+        int target = Move.getTarget(move);
+        entry[target] += depth * depth;
+        if (entry[target] > MAX_HISTORY) {
+            ageHistory();
+        }
+    }
+
+    public static boolean isQuiet(Game game, int move) {
+        return game.board.squares[Move.getTarget(move)] == Piece.NONE
+                && Move.getFlag(move) != Move.EN_PASSANT_CAPTURE
+                && !Move.isPromotion(move);
+    }
+
+    // Divise l'historique par deux pour que les coupures récentes comptent plus
+    private void ageHistory() {
+        for (int[][] byFrom : history) {
+            for (int[] byTarget : byFrom) {
+                for (int i = 0; i < 64; i++) {
+                    byTarget[i] >>= 1;
+                }
+            }
+        }
+    }
+
+    // Au début de chaque recherche : les killers dépendent de la position, l'historique est vieilli
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NULL_MOVE;
+            plyKillers[1] = Move.NULL_MOVE;
+        }
+        ageHistory();
+    }
+}
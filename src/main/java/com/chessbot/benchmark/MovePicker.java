@@ -0,0 +1,167 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+// Générateur par étapes, un par ply : les coups sont produits à la demande et une étape n'est générée
+// que si la recherche l'atteint. Après une coupure sur le coup de la table ou une capture,
+// les coups calmes ne sont jamais générés.
+public class MovePicker {
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int WINNING_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int LOSING_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    // Chaque ply a son générateur : l'analyse des échecs et clouages reste valable entre les étapes
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveOrdering moveOrdering;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+    private final int[] losingCaptures = new int[MoveGenerator.MAX_MOVES];
+
+    private Game game;
+    private int ply;
+    private int stage;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int count;
+    private int index;
+    private int losingCount;
+
+    public MovePicker(MoveOrdering moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    public void init(Game game, int hashMove, int ply) {
+        this.game = game;
+        this.ply = ply;
+        moveGenerator.setPosition(game);
+        this.hashMove = hashMove;
+        firstKiller = moveOrdering.getKiller(ply, 0);
+        secondKiller = moveOrdering.getKiller(ply, 1);
+        losingCount = 0;
+        stage = HASH_MOVE;
+    }
+
+    // Coup légal suivant, Move.NULL_MOVE quand il n'y en a plus
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE:
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != Move.NULL_MOVE && moveGenerator.isLegal(hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = Move.NULL_MOVE;
+                    break;
+
+                case GENERATE_CAPTURES:
+                    count = moveGenerator.generateMoves(moves, 0, MoveGenerator.CAPTURES);
+                    for (int i = 0; i < count; i++) {
+                        scores[i] = MoveOrdering.mvvLva(game.board, moves[i]);
+                    }
+                    index = 0;
+                    stage = WINNING_CAPTURES;
+                    break;
+
+                case WINNING_CAPTURES:
+                    while (index < count) {
+                        int move = pickBest();
+                        if (move == hashMove) {
+                            continue;
+                        }
+                        // Les captures perdantes sont gardées pour la fin. Une promotion sans prise
+                        // reste ici même si la case est attaquée : la SEE ne compte pas le gain de la promotion.
+                        if (!isQuietPromotion(move) && !StaticExchange.isAtLeast(game.board, move, 0)) {
+                            losingCaptures[losingCount++] = move;
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = FIRST_KILLER;
+                    break;
+
+                case FIRST_KILLER:
+                    stage = SECOND_KILLER;
+                    if (isPlayableKiller(firstKiller)) {
+                        return firstKiller;
+                    }
+                    break;
+
+                case SECOND_KILLER:
+                    stage = GENERATE_QUIETS;
+                    if (isPlayableKiller(secondKiller)) {
+                        return secondKiller;
+                    }
+                    break;
+
+                case GENERATE_QUIETS:
+                    count = moveGenerator.generateMoves(moves, 0, MoveGenerator.QUIET_MOVES);
+                    for (int i = 0; i < count; i++) {
+                        scores[i] = moveOrdering.getHistory(game, moves[i]);
+                    }
+                    index = 0;
+                    stage = QUIETS;
+                    break;
+
+                case QUIETS:
+                    while (index < count) {
+                        int move = pickBest();
+                        if (move != hashMove && move != firstKiller && move != secondKiller) {
+                            return move;
+                        }
+                    }
+                    index = 0;
+                    stage = LOSING_CAPTURES;
+                    break;
+
+                case LOSING_CAPTURES:
+                    if (index < losingCount) {
+                        return losingCaptures[index++];
+                    }
+                    stage = DONE;
+                    break;
+
+                default:
+                    return Move.NULL_MOVE;
+            }
+        }
+    }
+
+    // Échec dans la position du ply
+    public boolean isInCheck() {
+        return moveGenerator.isInCheck();
+    }
+
+    // Un killer vient d'une autre position du même ply : il doit être calme et légal ici
+    private boolean isPlayableKiller(int killer) {
+        return killer != Move.NULL_MOVE && killer != hashMove
+                && MoveOrdering.isQuiet(game, killer) && moveGenerator.isLegal(killer);
+    }
+
+    private boolean isQuietPromotion(int move) {
+        return Move.isPromotion(move) && game.board.squares[Move.getTarget(move)] == Piece.NONE;
+    }
+
+    // Tri par sélection partiel : amène le meilleur coup restant à index
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+
+        int move = moves[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = move;
+        index++;
+        return move;
+    }
+}
@@ -0,0 +1,99 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+public class SearchLimits {
+    public static final int MAX_DEPTH = 60;
+    private static final int DEFAULT_MOVES_TO_GO = 30; // Coups restants supposés sans movestogo
+    private static final long MOVE_OVERHEAD_MILLIS = 30; // Marge pour la communication avec l'interface
+
+    public final int depth;
+    public final long nodes;
+    public final long moveTimeMillis;
+
+    // Pendule (millisecondes), ignorée si clock est faux. Un temps restant nul est une pendule à plat,
+    // pas une absence de limite.
+    private final boolean clock;
+    public final long whiteTimeMillis;
+    public final long blackTimeMillis;
+    public final long whiteIncrementMillis;
+    public final long blackIncrementMillis;
+    public final int movesToGo;
+
+    // 0 = pas de limite pour ce critère
+    public SearchLimits(int depth, long nodes, long moveTimeMillis) {
+        this(depth, nodes, moveTimeMillis, false, 0, 0, 0, 0, 0);
+    }
+
+    // Les temps négatifs (envoyés par certaines interfaces en manque de temps) comptent comme 0
+    public SearchLimits(int depth, long nodes, long moveTimeMillis, boolean clock, long whiteTimeMillis,
+            long blackTimeMillis, long whiteIncrementMillis, long blackIncrementMillis, int movesToGo) {
+        this.depth = depth > 0 ? Math.min(depth, MAX_DEPTH) : MAX_DEPTH;
+        this.nodes = nodes > 0 ? nodes : Long.MAX_VALUE;
+        this.moveTimeMillis = moveTimeMillis > 0 ? moveTimeMillis : Long.MAX_VALUE;
+        this.clock = clock;
+        this.whiteTimeMillis = Math.max(0, whiteTimeMillis);
+        this.blackTimeMillis = Math.max(0, blackTimeMillis);
+        this.whiteIncrementMillis = Math.max(0, whiteIncrementMillis);
+        this.blackIncrementMillis = Math.max(0, blackIncrementMillis);
+        this.movesToGo = Math.max(0, movesToGo);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits moveTime(long milliseconds) {
+        return new SearchLimits(0, 0, milliseconds);
+    }
+
+    // Cadence avec incréments ; movesToGo = 0 pour une partie à temps fixe
+    public static SearchLimits clock(long whiteTimeMillis, long blackTimeMillis, long whiteIncrementMillis,
+            long blackIncrementMillis, int movesToGo) {
+        return new SearchLimits(0, 0, 0, true, whiteTimeMillis, blackTimeMillis, whiteIncrementMillis,
+                blackIncrementMillis, movesToGo);
+    }
+
+    public boolean hasClock() {
+        return clock;
+    }
+
+    // Temps accordé au coup du camp color : movetime, ou une part du temps restant plus l'incrément
+    public long getMoveTime(int color) {
+        if (!clock) {
+            return moveTimeMillis;
+        }
+        long remaining = color == Piece.WHITE ? whiteTimeMillis : blackTimeMillis;
+        if (remaining <= 0) {
+            return 1; // Pendule à plat : jouer tout de suite plutôt que chercher sans limite
+        }
+        long increment = color == Piece.WHITE ? whiteIncrementMillis : blackIncrementMillis;
+        long budget = remaining / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+        // Jamais plus que ce qui reste à la pendule
+        budget = Math.min(budget, remaining - MOVE_OVERHEAD_MILLIS);
+        return Math.min(moveTimeMillis, Math.max(1, budget));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        if (depth != MAX_DEPTH)
+            result.append("depth ").append(depth).append(' ');
+        if (nodes != Long.MAX_VALUE)
+            result.append("nodes ").append(nodes).append(' ');
+        if (moveTimeMillis != Long.MAX_VALUE)
+            result.append("movetime ").append(moveTimeMillis).append(' ');
+        if (hasClock()) {
+            result.append("wtime ").append(whiteTimeMillis).append(" btime ").append(blackTimeMillis).append(' ');
+            if (whiteIncrementMillis > 0 || blackIncrementMillis > 0)
+                result.append("winc ").append(whiteIncrementMillis).append(" binc ").append(blackIncrementMillis).append(' ');
+            if (movesToGo > 0)
+                result.append("movestogo ").append(movesToGo).append(' ');
+        }
+        return result.length() > 0 ? result.toString().trim() : "infinite";
+    }
+}
@@ -0,0 +1,406 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+public class Searcher {
+    public static final int MATE_SCORE = 30000;
+    // Gain prouvé par une finale, sous les scores de mat : l'évaluation départage les gains
+    public static final int KNOWN_WIN = 20000;
+    private static final int INFINITY = 32000;
+    private static final int MAX_PLY = SearchLimits.MAX_DEPTH + 32; // Place pour la quiescence
+    private static final int DELTA_MARGIN = 200;
+
+    // Lazy SMP : profondeurs sautées par les threads auxiliaires pour qu'ils divergent
+    private static final int[] SKIP_SIZE = { 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4 };
+    private static final int[] SKIP_PHASE = { 0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7 };
+
+    private final TranspositionTable transpositionTable;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final int[][] moveBuffers = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final MoveOrdering moveOrdering = new MoveOrdering(MAX_PLY);
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY];
+    private Bitbases bitbases; // null si aucune finale chargée
+    private PrintStream infoOutput; // Lignes UCI "info" après chaque itération, null pour se taire
+
+    private Game game;
+    private long nodes;
+    private long nodeLimit;
+    private volatile long deadline; // Peut être repoussée pendant la recherche (ponderhit)
+    private volatile boolean pondering; // Pendule ignorée jusqu'au ponderhit
+    private long startTime;
+    private volatile boolean stopped;
+
+    // Résultat de la dernière itération terminée
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+    private int rootBestMove;
+
+    public Searcher(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            movePickers[ply] = new MovePicker(moveOrdering);
+        }
+    }
+
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    public void setInfoOutput(PrintStream infoOutput) {
+        this.infoOutput = infoOutput;
+    }
+
+    // Nouveau temps de réflexion compté à partir de maintenant, appelable depuis un autre thread
+    public void setMoveTime(long moveTimeMillis) {
+        deadline = moveTimeMillis == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + moveTimeMillis * 1_000_000L;
+    }
+
+    // Avant de lancer une recherche sur le temps de l'adversaire : les vraies limites sont passées
+    // à search, mais l'échéance n'est vérifiée qu'après ponderHit
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+    // L'échéance est posée avant de lever le drapeau. Si le ponderhit arrive avant que la recherche
+    // ne démarre, iterate la calcule lui-même et le drapeau est déjà baissé.
+    public void ponderHit(long moveTimeMillis) {
+        setMoveTime(moveTimeMillis);
+        pondering = false;
+    }
+
+    // Approfondissement itératif : renvoie le meilleur coup de la dernière itération terminée
+    public int search(Game game, SearchLimits limits) {
+        transpositionTable.newSearch();
+        resetStop();
+        return iterate(game, limits, 0);
+    }
+
+    // Le thread 0 cherche toutes les profondeurs, les autres en sautent certaines
+    int iterate(Game game, SearchLimits limits, int threadIndex) {
+        this.game = game;
+        nodes = 0;
+        nodeLimit = limits.nodes;
+        startTime = System.nanoTime();
+        setMoveTime(limits.getMoveTime(game.colorToMove));
+        bestMove = Move.NULL_MOVE;
+        bestScore = 0;
+        completedDepth = 0;
+        moveOrdering.newSearch();
+
+        for (int depth = 1; depth <= limits.depth; depth++) {
+            if (threadIndex > 0) {
+                int skip = (threadIndex - 1) % SKIP_SIZE.length;
+                if (((depth + SKIP_PHASE[skip]) / SKIP_SIZE[skip]) % 2 != 0) {
+                    continue;
+                }
+            }
+
+            rootBestMove = Move.NULL_MOVE;
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+
+            if (stopped) {
+                break;
+            }
+
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (infoOutput != null && bestMove != Move.NULL_MOVE) {
+                printInfo();
+            }
+
+            // Mat trouvé : inutile de chercher plus loin
+            if (Math.abs(score) >= MATE_SCORE - MAX_PLY) {
+                break;
+            }
+        }
+
+        this.game = null;
+        return bestMove;
+    }
+
+    // Peut être appelé depuis un autre thread
+    public void stop() {
+        stopped = true;
+    }
+
+    // Avant de lancer la recherche, pour qu'un stop() arrivé ensuite ne soit pas perdu
+    void resetStop() {
+        stopped = false;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if ((nodes & 1023) == 0 && (nodes >= nodeLimit || (!pondering && System.nanoTime() >= deadline))) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        nodes++;
+
+        int originalAlpha = alpha;
+        int hashMove = Move.NULL_MOVE;
+        long entry = transpositionTable.probe(game.zobristKey);
+        if (entry != 0) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        // Finale connue, sondée juste après une capture ou un coup de pion (comme Stockfish) :
+        // entre deux, la recherche continue et l'évaluation mène au mat ou à la promotion.
+        int rootResult = Bitbases.UNKNOWN;
+        if (bitbases != null && (ply == 0 || game.halfmoveClock == 0)) {
+            int result = bitbases.probe(game);
+            if (ply == 0) {
+                rootResult = result;
+            } else if (result == Bitbase.WIN) {
+                return KNOWN_WIN + evaluate();
+            } else if (result == Bitbase.LOSS) {
+                return -KNOWN_WIN + evaluate();
+            } else if (result == Bitbase.DRAW) {
+                return 0;
+            }
+        }
+
+        if (depth == 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+
+        // Coups produits par étapes : la suite n'est générée que si aucune coupure n'a lieu
+        MovePicker movePicker = movePickers[ply];
+        movePicker.init(game, hashMove, ply);
+
+        int legalMoves = 0;
+        int bestScoreHere = -INFINITY;
+        int bestMoveHere = Move.NULL_MOVE;
+
+        int move;
+        while ((move = movePicker.next()) != Move.NULL_MOVE) {
+            game.makeMove(move);
+            // À la racine d'une finale connue, seuls les coups qui conservent le résultat sont cherchés
+            if (rootResult != Bitbases.UNKNOWN && !preservesResult(rootResult)) {
+                game.unmakeMove(move);
+                continue;
+            }
+            legalMoves++;
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScoreHere) {
+                bestScoreHere = score;
+                bestMoveHere = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (MoveOrdering.isQuiet(game, move)) {
+                            moveOrdering.recordCutoff(game, move, depth, ply);
+                        }
+                        break; // Coupure beta
+                    }
+                }
+            }
+        }
+
+        if (legalMoves == 0) {
+            // Mat (le plus rapide est préféré) ou pat
+            return movePicker.isInCheck() ? -MATE_SCORE + ply : 0;
+        }
+
+        int bound = bestScoreHere <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : bestScoreHere >= beta ? TranspositionTable.LOWER_BOUND
+                : TranspositionTable.EXACT;
+        transpositionTable.store(game.zobristKey, depth, bound, scoreToTable(bestScoreHere, ply), bestMoveHere);
+
+        return bestScoreHere;
+    }
+
+    // Prolonge la recherche par les captures jusqu'à une position calme, pour ne pas évaluer au milieu d'un échange
+    private int quiescence(int ply, int alpha, int beta) {
+        if ((nodes & 1023) == 0 && (nodes >= nodeLimit || (!pondering && System.nanoTime() >= deadline))) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        nodes++;
+
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+
+        // En échec, toutes les parades sont cherchées et il n'y a pas d'évaluation statique
+        boolean inCheck = game.isInCheck(game.colorToMove);
+        int[] moves = moveBuffers[ply];
+        int count = moveGenerator.generateMoves(game, moves, inCheck ? MoveGenerator.ALL_MOVES : MoveGenerator.CAPTURES);
+        int bestScoreHere;
+        int standPat = 0;
+        if (inCheck) {
+            if (count == 0) {
+                return -MATE_SCORE + ply;
+            }
+            bestScoreHere = -INFINITY;
+        } else {
+            standPat = evaluate();
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            bestScoreHere = standPat;
+        }
+
+        moveOrdering.scoreMoves(game, moves, count, Move.NULL_MOVE, ply);
+        for (int i = 0; i < count; i++) {
+            int move = moveOrdering.pickMove(moves, count, i, ply);
+
+            if (!inCheck) {
+                // Élagage delta : même en gagnant la pièce prise, alpha ne serait pas atteint
+                int captured = game.board.squares[Move.getTarget(move)];
+                int capturedValue = captured != Piece.NONE
+                        ? StaticExchange.getValue(Piece.getType(captured))
+                        : Move.getFlag(move) == Move.EN_PASSANT_CAPTURE ? StaticExchange.getValue(Piece.PAWN) : 0;
+                if (!Move.isPromotion(move) && standPat + capturedValue + DELTA_MARGIN <= alpha) {
+                    continue;
+                }
+                // Les captures perdantes ne sont pas cherchées. La SEE ignore le gain d'une promotion :
+                // une promotion sans prise est toujours cherchée.
+                boolean quietPromotion = Move.isPromotion(move) && captured == Piece.NONE;
+                if (!quietPromotion && !StaticExchange.isAtLeast(game.board, move, 0)) {
+                    continue;
+                }
+            }
+
+            game.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScoreHere) {
+                bestScoreHere = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return bestScoreHere;
+    }
+
+    // Le coup vient d'être joué : un gain doit rester un gain, une nulle ne doit pas devenir une perte
+    private boolean preservesResult(int rootResult) {
+        int result = bitbases.probe(game);
+        if (result == Bitbases.UNKNOWN) {
+            return true;
+        }
+        return rootResult == Bitbase.WIN ? result == Bitbase.LOSS
+                : rootResult != Bitbase.DRAW || result != Bitbase.WIN;
+    }
+
+    private int evaluate() {
+        return SimpleBot.evaluatePosition(game);
+    }
+
+    // Les scores de mat sont stockés relativement à la position, pas à la racine
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY)
+            return score + ply;
+        if (score <= -MATE_SCORE + MAX_PLY)
+            return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY)
+            return score - ply;
+        if (score <= -MATE_SCORE + MAX_PLY)
+            return score + ply;
+        return score;
+    }
+
+    // Ligne "info" de l'itération terminée ; la variante principale est lue dans la table
+    private void printInfo() {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startTime) / 1_000_000L);
+        StringBuilder line = new StringBuilder("info depth ").append(completedDepth).append(" score ");
+        if (Math.abs(bestScore) >= MATE_SCORE - MAX_PLY) {
+            int plies = MATE_SCORE - Math.abs(bestScore);
+            line.append("mate ").append(bestScore > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            line.append("cp ").append(bestScore);
+        }
+        line.append(" nodes ").append(nodes)
+                .append(" nps ").append(nodes * 1000 / elapsedMillis)
+                .append(" time ").append(elapsedMillis)
+                .append(" pv ").append(Move.toString(bestMove));
+        // Un auxiliaire a pu remplacer l'entrée de la racine : la suite part du coup retenu
+        game.makeMove(bestMove);
+        for (int move : getPrincipalVariation(game, completedDepth - 1)) {
+            line.append(' ').append(Move.toString(move));
+        }
+        game.unmakeMove(bestMove);
+        infoOutput.println(line);
+    }
+
+    // Suit les meilleurs coups de la table depuis la position, sans la modifier
+    public int[] getPrincipalVariation(Game game, int maxLength) {
+        int[] moves = new int[maxLength];
+        int length = 0;
+        while (length < maxLength) {
+            long entry = transpositionTable.probe(game.zobristKey);
+            int move = entry != 0 ? TranspositionTable.getMove(entry) : Move.NULL_MOVE;
+            if (move == Move.NULL_MOVE) {
+                break;
+            }
+            moveGenerator.setPosition(game);
+            if (!moveGenerator.isLegal(move)) {
+                break;
+            }
+            game.makeMove(move);
+            moves[length++] = move;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            game.unmakeMove(moves[i]);
+        }
+        return Arrays.copyOf(moves, length);
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -2,127 +2,209 @@ package com.chessbot.benchmark;
 
 import com.chessbot.*;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 public class SimpleBot {
+    private static final int MAX_PLY = 64;
+    public static final int DEFAULT_HASH_SIZE_MB = 16;
+
     private Random random;
-    private int difficulty; // 1-5
+    private int difficulty; // 1-6
+    private MoveGenerator moveGenerator;
+    private int[][] moveBuffers; // Un tampon de coups par niveau de recherche
+    private TranspositionTable transpositionTable;
+    private LazySmpSearch search;
+    private SearchLimits searchLimits = SearchLimits.moveTime(1000);
+    private PolyglotBook openingBook; // Partagé entre les bots, null si aucun
+    private Random bookRandom = new Random();
+    private Bitbases bitbases; // Finales sondées par la recherche du niveau 6, null si aucune
 
     public SimpleBot(int difficulty) {
+        this(difficulty, DEFAULT_HASH_SIZE_MB);
+    }
+
+    public SimpleBot(int difficulty, int hashSizeMb) {
         this.difficulty = difficulty;
         this.random = new Random();
+        this.moveGenerator = new MoveGenerator();
+        this.moveBuffers = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        // Seuls les niveaux qui cherchent en profondeur utilisent la table
+        if (difficulty >= 5) {
+            this.transpositionTable = new TranspositionTable(hashSizeMb);
+        }
+        if (difficulty >= 6) {
+            this.search = new LazySmpSearch(transpositionTable, 1);
+        }
     }
 
-    public String getBestMove(Game game) {
-        MoveGenerator moveGenerator = new MoveGenerator();
-        List<Move> moves = moveGenerator.generateMoves(game);
-
-        // Filtrer les coups légaux
-        List<Move> legalMoves = new java.util.ArrayList<>();
-        for (Move move : moves) {
-            if (!wouldLeaveKingInCheck(game, move)) {
-                legalMoves.add(move);
-            }
+    // Nombre de threads de recherche du niveau 6 (Lazy SMP au-delà de 1)
+    public void setThreads(int threads) {
+        if (search != null && search.getThreads() != threads) {
+            search.shutdown();
+            search = new LazySmpSearch(transpositionTable, threads);
+            search.setBitbases(bitbases);
+        }
+    }
+
+    // Budget de recherche du niveau 6 (profondeur, nœuds, temps)
+    public void setSearchLimits(SearchLimits searchLimits) {
+        this.searchLimits = searchLimits;
+    }
+
+    public Searcher getSearcher() {
+        return search != null ? search.getMainSearcher() : null;
+    }
+
+    public LazySmpSearch getSearch() {
+        return search;
+    }
+
+    // Libère les threads de recherche auxiliaires
+    public void shutdown() {
+        if (search != null) {
+            search.shutdown();
+        }
+    }
+
+    // Les coups du livre sont joués avant toute recherche ; la graine rend le choix reproductible
+    public void setOpeningBook(PolyglotBook openingBook, long seed) {
+        this.openingBook = openingBook;
+        this.bookRandom = new Random(seed);
+    }
+
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+        if (search != null) {
+            search.setBitbases(bitbases);
         }
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public String getBestMove(Game game) {
+        int[] legalMoves = moveBuffers[0];
+        int count = generateLegalMoves(game, legalMoves);
 
-        if (legalMoves.isEmpty()) {
+        if (count == 0) {
             return null;
         }
 
-        Move bestMove = null;
+        if (openingBook != null) {
+            int bookMove = openingBook.probe(game, bookRandom, legalMoves, count);
+            if (bookMove != Move.NULL_MOVE) {
+                return Move.toString(bookMove);
+            }
+        }
+
+        int bestMove;
 
         switch (difficulty) {
             case 1: // Complètement aléatoire
-                bestMove = legalMoves.get(random.nextInt(legalMoves.size()));
+                bestMove = legalMoves[random.nextInt(count)];
                 break;
 
             case 2: // Préfère les captures
-                bestMove = preferCaptures(game, legalMoves);
+                bestMove = preferCaptures(game, legalMoves, count);
                 break;
 
             case 3: // Évite de perdre des pièces
-                bestMove = avoidLossingPieces(game, legalMoves);
+                bestMove = avoidLossingPieces(game, legalMoves, count);
                 break;
 
             case 4: // Évaluation simple
-                bestMove = simpleEvaluation(game, legalMoves);
+                bestMove = simpleEvaluation(game, legalMoves, count);
                 break;
 
             case 5: // Évaluation avec profondeur 2
-                bestMove = deeperEvaluation(game, legalMoves);
+                bestMove = deeperEvaluation(game, legalMoves, count);
+                break;
+
+            case 6: // Alpha-beta avec approfondissement itératif, limité en temps ou en nœuds
+                bestMove = search.search(game, searchLimits);
+                if (bestMove == Move.NULL_MOVE) {
+                    bestMove = legalMoves[0];
+                }
                 break;
 
             default:
-                bestMove = legalMoves.get(random.nextInt(legalMoves.size()));
+                bestMove = legalMoves[random.nextInt(count)];
         }
 
-        return bestMove.toString();
+        return Move.toString(bestMove);
+    }
+
+    // Remplit le tampon avec les coups légaux et renvoie leur nombre
+    private int generateLegalMoves(Game game, int[] moves) {
+        return moveGenerator.generateMoves(game, moves);
     }
 
-    private Move preferCaptures(Game game, List<Move> moves) {
+    private int preferCaptures(Game game, int[] moves, int count) {
         // Chercher les captures
-        for (Move move : moves) {
-            if (game.board.squares[move.target] != Piece.NONE) {
-                return move;
+        for (int i = 0; i < count; i++) {
+            if (game.board.squares[Move.getTarget(moves[i])] != Piece.NONE) {
+                return moves[i];
             }
         }
-        return moves.get(random.nextInt(moves.size()));
+        return moves[random.nextInt(count)];
     }
 
-    private Move avoidLossingPieces(Game game, List<Move> moves) {
+    private int avoidLossingPieces(Game game, int[] moves, int count) {
         // Implémentation simple : éviter les cases attaquées
-        for (Move move : moves) {
-            if (!isSquareAttacked(game, move.target, game.colorToMove == Piece.WHITE ? Piece.BLACK : Piece.WHITE)) {
-                return move;
+        for (int i = 0; i < count; i++) {
+            if (!isSquareAttacked(game, Move.getTarget(moves[i]),
+                    game.colorToMove == Piece.WHITE ? Piece.BLACK : Piece.WHITE)) {
+                return moves[i];
             }
         }
-        return moves.get(random.nextInt(moves.size()));
+        return moves[random.nextInt(count)];
     }
 
-    private Move simpleEvaluation(Game game, List<Move> moves) {
-        Move bestMove = moves.get(0);
+    private int simpleEvaluation(Game game, int[] moves, int count) {
+        int bestMove = moves[0];
         int bestScore = Integer.MIN_VALUE;
 
-        for (Move move : moves) {
-            int score = evaluateMove(game, move);
+        for (int i = 0; i < count; i++) {
+            int score = evaluateMove(game, moves[i]);
             if (score > bestScore) {
                 bestScore = score;
-                bestMove = move;
+                bestMove = moves[i];
             }
         }
 
         return bestMove;
     }
 
-    private Move deeperEvaluation(Game game, List<Move> moves) {
-        Move bestMove = moves.get(0);
+    private int deeperEvaluation(Game game, int[] moves, int count) {
+        int bestMove = moves[0];
         int bestScore = Integer.MIN_VALUE;
+        transpositionTable.newSearch();
 
-        for (Move move : moves) {
-            int score = minimax(game, move, 2, false);
+        for (int i = 0; i < count; i++) {
+            int score = minimax(game, moves[i], 2, false, 1);
             if (score > bestScore) {
                 bestScore = score;
-                bestMove = move;
+                bestMove = moves[i];
             }
         }
 
         return bestMove;
     }
 
-    private int evaluateMove(Game game, Move move) {
+    private int evaluateMove(Game game, int move) {
         int score = 0;
+        int target = Move.getTarget(move);
 
         // Points pour les captures
-        int capturedPiece = game.board.squares[move.target];
+        int capturedPiece = game.board.squares[target];
         if (capturedPiece != Piece.NONE) {
             score += getPieceValue(capturedPiece);
         }
 
         // Points pour le contrôle du centre
-        int file = move.target % 8;
-        int rank = move.target / 8;
+        int file = target % 8;
+        int rank = target / 8;
         if (file >= 2 && file <= 5 && rank >= 2 && rank <= 5) {
             score += 10;
         }
@@ -130,34 +212,35 @@ public class SimpleBot {
         return score;
     }
 
-    private int minimax(Game game, Move move, int depth, boolean isMaximizing) {
-        // Sauvegarde de l'état
-        int[] originalBoard = game.board.squares.clone();
-        int originalColor = game.colorToMove;
-
-        executeMove(game, move);
+    private int minimax(Game game, int move, int depth, boolean isMaximizing, int ply) {
+        game.makeMove(move);
         int score = 0;
 
+        // Position déjà évaluée à cette profondeur (transposition). La feuille est évaluée
+        // du point de vue du camp au trait, donc seule une profondeur identique est réutilisable.
+        if (depth > 0) {
+            long entry = transpositionTable.probe(game.zobristKey);
+            if (entry != 0 && TranspositionTable.getDepth(entry) == depth) {
+                game.unmakeMove(move);
+                return TranspositionTable.getScore(entry);
+            }
+        }
+
         // Vérifier si la partie est terminée ou profondeur atteinte
         if (depth == 0 || game.isGameOver()) {
             score = evaluatePosition(game);
         } else {
-            // Générer les coups suivants
-            List<Move> nextMoves = new MoveGenerator().generateMoves(game);
-            List<Move> legalMoves = new ArrayList<>();
-            for (Move m : nextMoves) {
-                if (!wouldLeaveKingInCheck(game, m)) {
-                    legalMoves.add(m);
-                }
-            }
+            // Générer les coups suivants dans le tampon de ce niveau
+            int[] legalMoves = moveBuffers[ply];
+            int count = generateLegalMoves(game, legalMoves);
 
-            if (legalMoves.isEmpty()) {
+            if (count == 0) {
                 score = evaluatePosition(game);
             } else {
                 score = isMaximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
 
-                for (Move nextMove : legalMoves) {
-                    int currentScore = minimax(game, nextMove, depth - 1, !isMaximizing);
+                for (int i = 0; i < count; i++) {
+                    int currentScore = minimax(game, legalMoves[i], depth - 1, !isMaximizing, ply + 1);
 
                     if (isMaximizing) {
                         score = Math.max(score, currentScore);
@@ -168,33 +251,23 @@ public class SimpleBot {
             }
         }
 
+        if (depth > 0) {
+            transpositionTable.store(game.zobristKey, depth, TranspositionTable.EXACT, score, Move.NULL_MOVE);
+        }
+
         // Restauration de l'état
-        game.board.squares = originalBoard;
-        game.colorToMove = originalColor; // CORRECTION CRITIQUE
+        game.unmakeMove(move);
 
         return score;
     }
 
-    private int evaluatePosition(Game game) {
-        int score = 0;
+    // Matériel et tables pièce-case tenus à jour par le plateau : évaluation en temps constant
+    static int evaluatePosition(Game game) {
         int perspective = (game.colorToMove == Piece.WHITE) ? 1 : -1; // CORRECTION IMPORTANTE
-
-        for (int i = 0; i < 64; i++) {
-            int piece = game.board.squares[i];
-            if (piece != Piece.NONE) {
-                int value = getPieceValue(piece);
-                if (Piece.isWhite(piece)) {
-                    score += value;
-                } else {
-                    score -= value;
-                }
-            }
-        }
-
-        return score * perspective; // CORRECTION : tenir compte du camp
+        return PieceSquareTables.evaluate(game.board) * perspective; // CORRECTION : tenir compte du camp
     }
 
-    private int getPieceValue(int piece) {
+    static int getPieceValue(int piece) {
         switch (Piece.getType(piece)) {
             case Piece.PAWN:
                 return 100;
@@ -213,68 +286,7 @@ public class SimpleBot {
         }
     }
 
-    private boolean wouldLeaveKingInCheck(Game game, Move move) {
-        // Sauvegarder l'état avant le coup
-        int[] originalBoard = game.board.squares.clone();
-        int originalColor = game.colorToMove;
-
-        // Exécuter temporairement le coup
-        game.board.squares[move.target] = game.board.squares[move.startingSquare];
-        game.board.squares[move.startingSquare] = Piece.NONE;
-        game.colorToMove = Piece.getOpponentColor(originalColor);
-
-        // Trouver la position du roi
-        int kingSquare = -1;
-        for (int i = 0; i < 64; i++) {
-            int piece = game.board.squares[i];
-            if (Piece.getType(piece) == Piece.KING && Piece.getColor(piece) == originalColor) {
-                kingSquare = i;
-                break;
-            }
-        }
-
-        // Vérifier si le roi est attaqué
-        boolean kingInCheck = false;
-        if (kingSquare != -1) {
-            kingInCheck = game.isSquareAttacked(kingSquare, Piece.getOpponentColor(originalColor));
-        }
-
-        // Restaurer l'état original
-        game.board.squares = originalBoard;
-        game.colorToMove = originalColor;
-
-        return kingInCheck;
-    }
-
-    private boolean isInCheck(Game game, int color) {
-        // Implémentation simplifiée
-        int kingSquare = -1;
-        for (int i = 0; i < 64; i++) {
-            int piece = game.board.squares[i];
-            if (Piece.getType(piece) == Piece.KING && Piece.getColor(piece) == color) {
-                kingSquare = i;
-                break;
-            }
-        }
-
-        if (kingSquare == -1)
-            return false;
-
-        int opponentColor = (color == Piece.WHITE) ? Piece.BLACK : Piece.WHITE;
-        return isSquareAttacked(game, kingSquare, opponentColor);
-    }
-
-    private void executeMove(Game game, Move move) {
-        game.board.squares[move.target] = game.board.squares[move.startingSquare];
-        game.board.squares[move.startingSquare] = Piece.NONE;
-        game.colorToMove = Piece.getOpponentColor(game.colorToMove);
-    }
-
     private boolean isSquareAttacked(Game game, int square, int attackerColor) {
-        return new MoveGenerator().isSquareAttackedDirectly(game.board, square, attackerColor);
-    }
-
-    private void undoMove(Game game, Move move) {
-        // Implémentation simplifiée - nécessiterait de sauvegarder l'état
+        return moveGenerator.isSquareAttackedDirectly(game.board, square, attackerColor);
     }
 }
@@ -0,0 +1,62 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+// Mesure le gain de Lazy SMP : temps pour atteindre une profondeur fixe selon le nombre de threads
+public class SmpBenchmarkMain {
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    };
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8 };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int hashSizeMb = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        System.out.println("=== LAZY SMP : TEMPS POUR ATTEINDRE LA PROFONDEUR " + depth + " ===");
+        System.out.println("Cœurs disponibles: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("Table de transposition: " + hashSizeMb + " Mo");
+        System.out.println();
+
+        // Une recherche à vide pour chauffer le JIT
+        runAll(1, Math.min(depth, 4), hashSizeMb);
+
+        System.out.println("Threads | Temps (ms) | Nœuds      | Nœuds/s    | Accélération");
+        System.out.println("-".repeat(64));
+        long baseTime = 0;
+        for (int threads : THREAD_COUNTS) {
+            long[] result = runAll(threads, depth, hashSizeMb);
+            long timeMs = Math.max(1, result[0]);
+            if (threads == 1) {
+                baseTime = timeMs;
+            }
+            System.out.printf("   %d    | %10d | %10d | %10d | %6.2fx\n",
+                    threads, timeMs, result[1], result[1] * 1000 / timeMs, (double) baseTime / timeMs);
+        }
+    }
+
+    // Renvoie { temps total en ms, nœuds totaux } pour toutes les positions
+    private static long[] runAll(int threads, int depth, int hashSizeMb) {
+        long totalTime = 0;
+        long totalNodes = 0;
+
+        for (String fen : POSITIONS) {
+            Game game = new Game(false, true);
+            game.loadPositionFromFEN(fen);
+            LazySmpSearch search = new LazySmpSearch(new TranspositionTable(hashSizeMb), threads);
+
+            long start = System.nanoTime();
+            search.search(game, SearchLimits.depth(depth));
+            totalTime += (System.nanoTime() - start) / 1_000_000;
+            totalNodes += search.getNodes();
+
+            search.shutdown();
+        }
+
+        return new long[] { totalTime, totalNodes };
+    }
+}
@@ -0,0 +1,135 @@
+package com.chessbot.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    // Une entrée = 2 longs (clé XOR données, données), deux entrées par seau
+    private static final int ENTRIES_PER_BUCKET = 2;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    // Disposition des données : coup 16 bits, score 16 bits, profondeur 8 bits, borne 2 bits, âge 6 bits
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 42;
+    private static final int AGE_MASK = 0b111111;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    public TranspositionTable(int sizeMb) {
+        long buckets = Math.max(1L, (long) sizeMb * 1024 * 1024 / BYTES_PER_BUCKET);
+        int bucketCount = Integer.highestOneBit((int) Math.min(buckets, Integer.MAX_VALUE / LONGS_PER_BUCKET));
+        this.table = new long[bucketCount * LONGS_PER_BUCKET];
+        this.bucketMask = bucketCount - 1;
+    }
+
+    // Renvoie les données de l'entrée ou 0 si la position est absente.
+    // Sans verrou : une entrée écrite à moitié par un autre thread échoue au contrôle XOR.
+    public long probe(long key) {
+        probes.increment();
+        int base = bucketIndex(key);
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+            int slot = base + i * 2;
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key && data != 0) {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(long key, int depth, int bound, int score, int bestMove) {
+        int base = bucketIndex(key);
+        int currentAge = age;
+
+        // Même position, sinon l'entrée la moins utile : faible profondeur et ancienne recherche
+        int replaceSlot = base;
+        int lowestWorth = Integer.MAX_VALUE;
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+            int slot = base + i * 2;
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key) {
+                replaceSlot = slot;
+                if (bestMove == 0) {
+                    bestMove = getMove(data); // Conserver le meilleur coup connu
+                }
+                break;
+            }
+
+            int entryAge = (int) (data >>> AGE_SHIFT) & AGE_MASK;
+            int worth = getDepth(data) - 8 * ((currentAge - entryAge) & AGE_MASK);
+            if (data == 0) {
+                worth = Integer.MIN_VALUE;
+            }
+            if (worth < lowestWorth) {
+                lowestWorth = worth;
+                replaceSlot = slot;
+            }
+        }
+
+        long data = (bestMove & 0xFFFFL)
+                | ((long) (clampScore(score) & 0xFFFF) << SCORE_SHIFT)
+                | ((long) (Math.min(depth, 255) & 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT)
+                | 1L << 63; // Jamais nul, pour distinguer une entrée vide
+        table[replaceSlot] = key ^ data;
+        table[replaceSlot + 1] = data;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key >>> 32) & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    private static int clampScore(int score) {
+        return Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+    }
+
+    public static int getMove(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int getScore(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int getBound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0b11;
+    }
+
+    // À appeler au début de chaque recherche pour vieillir les entrées existantes
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+    }
+
+    public double getHitRate() {
+        long probeCount = probes.sum();
+        return probeCount > 0 ? (double) hits.sum() / probeCount * 100 : 0;
+    }
+
+    public int getSizeMb() {
+        return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+    }
+}
@@ -1,13 +1,35 @@
 package com.chessbot.benchmark;
 
 import java.io.*;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
+// Moteur UCI externe (Stockfish). Un thread virtuel lit sa sortie et la range dans une file :
+// les attentes de bestmove ou readyok ont de vraies échéances, même si le moteur ne dit plus rien.
 public class UCIEngine {
+    public static final SearchLimits DEFAULT_LIMITS = SearchLimits.moveTime(5000);
+    private static final long RESPONSE_MARGIN_MILLIS = 5000; // Au-delà du temps accordé, le moteur est considéré bloqué
+    private static final long STARTUP_TIMEOUT_MILLIS = 30000; // Chargement du réseau compris
+    private static final long READY_TIMEOUT_MILLIS = 10000;
+    private static final long STOP_TIMEOUT_MILLIS = 2000; // Délai accordé après stop pour répondre bestmove
+    // Sans limite de temps (depth, nodes) : sert seulement à détecter un moteur bloqué, jamais à couper une recherche
+    private static final long HANG_TIMEOUT_MILLIS = 600000;
+
+    // Marque la fin de la sortie du moteur dans la file : aucune ligne lue ne peut lui être égale
+    private static final Object END_OF_OUTPUT = new Object();
+
     private Process process;
-    private BufferedReader reader;
     private PrintWriter writer;
     private String enginePath;
+    private final BlockingQueue<Object> output = new LinkedBlockingQueue<>(); // Lignes, puis END_OF_OUTPUT
+    // Vrai dès que le moteur s'est arrêté ou n'a pas répondu à temps : il ne doit plus servir
+    private volatile boolean failed;
+    private volatile String failure;
+    // Tampon de commande réutilisé à chaque coup : la ligne position grandit avec la partie
+    private final StringBuilder command = new StringBuilder(1024);
+    private char[] commandChars = new char[1024];
 
     public UCIEngine(String enginePath) {
         this.enginePath = enginePath;
@@ -19,16 +41,20 @@ public class UCIEngine {
             pb.redirectErrorStream(true);
             process = pb.start();
 
-            reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
             writer = new PrintWriter(new OutputStreamWriter(process.getOutputStream()), true);
+            Thread.ofVirtual().name("uci-reader").start(() -> readOutput(reader));
 
             // Initialiser UCI
             sendCommand("uci");
-            waitForResponse("uciok");
-
-            sendCommand("isready");
-            waitForResponse("readyok");
-
+            if (!waitForResponse("uciok", STARTUP_TIMEOUT_MILLIS)) {
+                close();
+                return false;
+            }
+            if (!isReady()) {
+                close();
+                return false;
+            }
             return true;
         } catch (Exception e) {
             System.err.println("Erreur lors du démarrage du moteur: " + e.getMessage());
@@ -36,75 +62,198 @@ public class UCIEngine {
         }
     }
 
+    // Recopie chaque ligne du moteur dans la file jusqu'à la fin de sa sortie
+    private void readOutput(BufferedReader reader) {
+        try (reader) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        } catch (IOException e) {
+            // Flux fermé : même traitement qu'une fin de sortie
+        }
+        output.add(END_OF_OUTPUT);
+    }
+
     public void setSkillLevel(int level) {
         // Pour Stockfish, niveau 0-20
         sendCommand("setoption name Skill Level value " + level);
+        isReady();
+    }
+
+    public void setOption(String name, String value) {
+        sendCommand("setoption name " + name + " value " + value);
+    }
+
+    // Vrai si le processus tourne et répond à isready
+    public boolean isReady() {
+        if (!isAlive()) {
+            return false;
+        }
         sendCommand("isready");
-        waitForResponse("readyok");
+        return waitForResponse("readyok", READY_TIMEOUT_MILLIS);
     }
 
-    public void setTimeLimit(int milliseconds) {
-        sendCommand("setoption name movetime value " + milliseconds);
+    // Remet le moteur à zéro entre deux parties (tables et historique), sans relancer le processus
+    public boolean newGame() {
+        if (!isAlive()) {
+            return false;
+        }
+        sendCommand("ucinewgame");
+        return isReady();
     }
 
-    public String getBestMove(String position) {
-        sendCommand("position fen " + position);
-        sendCommand("go movetime 5000"); // 5 secondes
+    public boolean isAlive() {
+        return process != null && process.isAlive() && !failed;
+    }
 
-        String bestMove = null;
-        String line;
-        try {
-            long startTime = System.currentTimeMillis();
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("bestmove")) {
-                    String[] parts = line.split(" ");
-                    if (parts.length >= 2) {
-                        bestMove = parts[1];
-                        break;
-                    }
-                }
+    // Vrai si le moteur a planté ou cessé de répondre ; getFailure en donne la raison
+    public boolean hasFailed() {
+        return failed;
+    }
 
-                // Timeout de sécurité
-                if (System.currentTimeMillis() - startTime > 10000) {
-                    break;
-                }
+    public String getFailure() {
+        return failure;
+    }
+
+    public String getBestMove(String fen) {
+        return getBestMove(fen, List.of(), DEFAULT_LIMITS);
+    }
+
+    // startFen null pour la position initiale ; moves en notation UCI (e2e4, e7e8q).
+    // Le moteur reçoit toute la partie : répétitions et règle des 50 coups compris.
+    // limits devient la commande go (nodes, depth, movetime ou pendule avec incréments).
+    public String getBestMove(String startFen, List<String> moves, SearchLimits limits) {
+        command.setLength(0);
+        command.append("position ");
+        if (startFen == null) {
+            command.append("startpos");
+        } else {
+            command.append("fen ").append(startFen);
+        }
+        if (!moves.isEmpty()) {
+            command.append(" moves");
+            for (String move : moves) {
+                command.append(' ').append(move);
             }
-        } catch (IOException e) {
-            System.err.println("Erreur lors de la lecture: " + e.getMessage());
+        }
+        sendCommand(command);
+
+        command.setLength(0);
+        command.append("go ").append(limits);
+        sendCommand(command);
+        long timeout = getTimeout(limits);
+
+        // Échéance dépassée : le coup obtenu par stop ne respecte pas les limites demandées, il n'est pas joué.
+        // Le stop sert seulement à laisser le moteur dans un état connu avant de le déclarer hors service.
+        String bestMove = waitForBestMove(System.currentTimeMillis() + timeout);
+        if (bestMove == null && !failed) {
+            sendCommand("stop");
+            boolean stopped = waitForBestMove(System.currentTimeMillis() + STOP_TIMEOUT_MILLIS) != null;
+            fail("pas de bestmove " + timeout + " ms après go " + limits
+                    + (stopped ? " (coup obtenu par stop, ignoré)" : ""));
         }
 
         return bestMove != null ? bestMove : "0000"; // Move null en cas d'erreur
     }
 
+    // Coup de la ligne bestmove, null à l'échéance ou si le moteur s'arrête
+    private String waitForBestMove(long deadline) {
+        String line;
+        while ((line = nextLine(deadline)) != null) {
+            if (line.startsWith("bestmove")) {
+                String[] parts = line.split(" ");
+                if (parts.length >= 2) {
+                    return parts[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    // Temps maximal accordé par les limites (toute la pendule au pire), plus une marge.
+    // Une recherche en profondeur ou en nœuds doit aller à son terme, quelle que soit la charge de la machine.
+    private static long getTimeout(SearchLimits limits) {
+        long allowed;
+        if (limits.moveTimeMillis != Long.MAX_VALUE) {
+            allowed = limits.moveTimeMillis;
+        } else if (limits.hasClock()) {
+            allowed = Math.max(limits.whiteTimeMillis, limits.blackTimeMillis);
+        } else {
+            return HANG_TIMEOUT_MILLIS;
+        }
+        return Math.max(2 * RESPONSE_MARGIN_MILLIS, allowed + RESPONSE_MARGIN_MILLIS);
+    }
+
     public void sendCommand(String command) {
         writer.println(command);
         writer.flush();
     }
 
-    private void waitForResponse(String expected) {
+    // Sans passer par une String : les caractères sont copiés dans un tableau réutilisé
+    private void sendCommand(StringBuilder command) {
+        int length = command.length();
+        if (commandChars.length < length) {
+            commandChars = new char[Math.max(length, commandChars.length * 2)];
+        }
+        command.getChars(0, length, commandChars, 0);
+        writer.write(commandChars, 0, length);
+        writer.println();
+        writer.flush();
+    }
+
+    // Faux si le moteur s'est arrêté ou n'a pas répondu avant l'échéance
+    private boolean waitForResponse(String expected, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        String line;
+        while ((line = nextLine(deadline)) != null) {
+            if (line.contains(expected)) {
+                return true;
+            }
+        }
+        if (!failed) {
+            fail("pas de " + expected + " après " + timeoutMillis + " ms");
+        }
+        return false;
+    }
+
+    // Ligne suivante du moteur, null à l'échéance ou à la fin de sa sortie (moteur planté)
+    private String nextLine(long deadline) {
+        if (failed) {
+            return null;
+        }
         try {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains(expected)) {
-                    break;
-                }
+            long remaining = deadline - System.currentTimeMillis();
+            Object line = remaining > 0 ? output.poll(remaining, TimeUnit.MILLISECONDS) : output.poll();
+            if (line == END_OF_OUTPUT) {
+                output.add(END_OF_OUTPUT); // Les attentes suivantes échouent aussi tout de suite
+                boolean exited = process.waitFor(100, TimeUnit.MILLISECONDS);
+                fail(exited ? "arrêté (code " + process.exitValue() + ")" : "sortie fermée");
+                return null;
             }
-        } catch (IOException e) {
-            System.err.println("Erreur lors de l'attente: " + e.getMessage());
+            return (String) line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
     }
 
+    private void fail(String reason) {
+        failed = true;
+        failure = reason;
+        System.err.println("Moteur " + enginePath + " hors service: " + reason);
+    }
+
     public void close() {
         try {
-            sendCommand("quit");
-            if (process != null) {
+            if (writer != null) {
+                sendCommand("quit");
+                writer.close();
+            }
+            if (process != null && !process.waitFor(1, TimeUnit.SECONDS)) {
                 process.destroyForcibly();
                 process.waitFor(5, TimeUnit.SECONDS);
             }
-            if (reader != null)
-                reader.close();
-            if (writer != null)
-                writer.close();
         } catch (Exception e) {
             System.err.println("Erreur lors de la fermeture: " + e.getMessage());
         }
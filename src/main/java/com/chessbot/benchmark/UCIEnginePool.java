@@ -0,0 +1,155 @@
+package com.chessbot.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+
+// Processus moteur gardés chauds entre les parties : lancement, poignée de main UCI et chargement
+// du réseau ne sont payés qu'une fois par processus. Les moteurs sont rangés par chemin et options,
+// et au plus maxEngines processus vivent en même temps (les inactifs d'une autre clé sont fermés si besoin).
+public class UCIEnginePool {
+    private final int maxEngines;
+    private final Semaphore borrowPermits;
+    private final Map<String, ArrayDeque<UCIEngine>> idleEngines = new HashMap<>();
+    private final Map<UCIEngine, String> borrowedEngines = new IdentityHashMap<>();
+    private int liveEngines;
+    private int startedEngines;
+
+    public UCIEnginePool(int maxEngines) {
+        this.maxEngines = Math.max(1, maxEngines);
+        this.borrowPermits = new Semaphore(this.maxEngines, true);
+    }
+
+    // Moteur prêt pour une nouvelle partie (ucinewgame déjà envoyé), null s'il n'a pas pu démarrer.
+    // Bloque tant que maxEngines moteurs sont empruntés.
+    public UCIEngine acquire(String enginePath, Map<String, String> options) throws InterruptedException {
+        String key = key(enginePath, options);
+        borrowPermits.acquire();
+        try {
+            UCIEngine engine;
+            while ((engine = takeIdle(key)) != null) {
+                // Contrôle de santé : un moteur mort ou muet est remplacé
+                if (engine.newGame()) {
+                    markBorrowed(engine, key);
+                    return engine;
+                }
+                System.err.println("Moteur hors service remplacé: " + enginePath);
+                closeEngine(engine);
+            }
+
+            engine = startEngine(enginePath, options);
+            if (engine == null) {
+                borrowPermits.release();
+                return null;
+            }
+            markBorrowed(engine, key);
+            return engine;
+        } catch (RuntimeException e) {
+            borrowPermits.release();
+            throw e;
+        }
+    }
+
+    // Rend le moteur après la partie ; un processus mort n'est pas gardé
+    public void release(UCIEngine engine) {
+        String key;
+        synchronized (this) {
+            key = borrowedEngines.remove(engine);
+            if (key != null && engine.isAlive()) {
+                idleEngines.computeIfAbsent(key, k -> new ArrayDeque<>()).push(engine);
+            }
+        }
+        if (key == null) {
+            return;
+        }
+        if (!engine.isAlive()) {
+            closeEngine(engine);
+        }
+        borrowPermits.release();
+    }
+
+    // Ferme les moteurs inactifs ; les moteurs empruntés le seront à leur retour
+    public void close() {
+        ArrayDeque<UCIEngine> engines = new ArrayDeque<>();
+        synchronized (this) {
+            for (ArrayDeque<UCIEngine> idle : idleEngines.values()) {
+                engines.addAll(idle);
+            }
+            idleEngines.clear();
+        }
+        for (UCIEngine engine : engines) {
+            closeEngine(engine);
+        }
+    }
+
+    // Processus lancés depuis la création du pool
+    public synchronized int getStartedEngines() {
+        return startedEngines;
+    }
+
+    private UCIEngine startEngine(String enginePath, Map<String, String> options) {
+        UCIEngine evicted = reserveSlot();
+        if (evicted != null) {
+            closeEngine(evicted);
+        }
+
+        UCIEngine engine = new UCIEngine(enginePath);
+        if (engine.start()) {
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                engine.setOption(option.getKey(), option.getValue());
+            }
+            if (engine.isReady()) {
+                synchronized (this) {
+                    startedEngines++;
+                }
+                return engine;
+            }
+        }
+
+        engine.close();
+        synchronized (this) {
+            liveEngines--;
+        }
+        return null;
+    }
+
+    // Compte le nouveau processus ; si la limite est atteinte, un moteur inactif d'une autre clé cède sa place.
+    // Il en existe toujours un : on tient un permis sans avoir de moteur, donc tous ne sont pas empruntés.
+    private synchronized UCIEngine reserveSlot() {
+        UCIEngine evicted = null;
+        if (liveEngines >= maxEngines) {
+            for (ArrayDeque<UCIEngine> idle : idleEngines.values()) {
+                if (!idle.isEmpty()) {
+                    evicted = idle.pollLast();
+                    break;
+                }
+            }
+        }
+        liveEngines++; // Le moteur évincé est décompté à sa fermeture
+        return evicted;
+    }
+
+    private synchronized UCIEngine takeIdle(String key) {
+        ArrayDeque<UCIEngine> idle = idleEngines.get(key);
+        return idle != null ? idle.poll() : null;
+    }
+
+    private synchronized void markBorrowed(UCIEngine engine, String key) {
+        borrowedEngines.put(engine, key);
+    }
+
+    private void closeEngine(UCIEngine engine) {
+        engine.close();
+        synchronized (this) {
+            liveEngines--;
+        }
+    }
+
+    // Les options sont triées : le même réglage donne toujours la même clé
+    private static String key(String enginePath, Map<String, String> options) {
+        return enginePath + " " + new TreeMap<>(options);
+    }
+}
@@ -0,0 +1,369 @@
+package com.chessbot.benchmark;
+
+import com.chessbot.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.concurrent.*;
+
+// Le bot comme moteur UCI, pour les interfaces et les gestionnaires de tournoi :
+//   java com.chessbot.benchmark.UCIMain
+// La recherche tourne sur son propre thread : stop répond tout de suite avec le meilleur coup trouvé.
+public class UCIMain {
+    private static final String ENGINE_NAME = "ChessBot";
+    private static final String ENGINE_AUTHOR = "fabiovandewaeter";
+    private static final int MAX_HASH_SIZE_MB = 4096;
+    private static final int MAX_THREADS = 256;
+
+    private final PrintStream out;
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "uci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Options, appliquées à la création du bot
+    private int level = 6;
+    private int hashSizeMb = SimpleBot.DEFAULT_HASH_SIZE_MB;
+    private int threads = 1;
+    private Bitbases bitbases;
+
+    private SimpleBot bot; // Créé au premier go, recréé si Hash ou Level change
+    private Game game = new Game(false, true);
+
+    private Future<?> searchTask;
+    // En mode ponder ou infinite, bestmove n'est écrit qu'après stop ou ponderhit
+    private CountDownLatch release = new CountDownLatch(0);
+    private SearchLimits ponderLimits; // Limites de la recherche en ponder, null hors ponder
+
+    public UCIMain(PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        new UCIMain(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    public void run(BufferedReader input) throws IOException {
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (!handleCommand(line.trim())) {
+                    break;
+                }
+            }
+        } finally {
+            stopSearch();
+            searchThread.shutdownNow();
+            if (bot != null) {
+                bot.shutdown();
+            }
+        }
+    }
+
+    // Renvoie false sur quit ; les commandes inconnues sont ignorées, comme le demande le protocole
+    public boolean handleCommand(String line) {
+        if (line.isEmpty()) {
+            return true;
+        }
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                out.println("id name " + ENGINE_NAME);
+                out.println("id author " + ENGINE_AUTHOR);
+                out.println("option name Hash type spin default " + SimpleBot.DEFAULT_HASH_SIZE_MB
+                        + " min 1 max " + MAX_HASH_SIZE_MB);
+                out.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                out.println("option name Level type spin default 6 min 1 max 6");
+                out.println("option name Ponder type check default false");
+                out.println("option name BitbasePath type string default <empty>");
+                out.println("uciok");
+                break;
+
+            case "isready":
+                out.println("readyok");
+                break;
+
+            case "setoption":
+                stopSearch();
+                setOption(line);
+                break;
+
+            case "ucinewgame":
+                stopSearch();
+                if (bot != null && bot.getTranspositionTable() != null) {
+                    bot.getTranspositionTable().clear();
+                }
+                game = new Game(false, true);
+                break;
+
+            case "position":
+                stopSearch();
+                setPosition(tokens);
+                break;
+
+            case "go":
+                stopSearch();
+                go(tokens);
+                break;
+
+            case "stop":
+                stopSearch();
+                break;
+
+            case "ponderhit":
+                ponderHit();
+                break;
+
+            case "quit":
+                return false;
+
+            default:
+                break;
+        }
+        return true;
+    }
+
+    // setoption name <nom> [value <valeur>]
+    private void setOption(String line) {
+        int nameIndex = line.indexOf(" name ");
+        if (nameIndex < 0) {
+            return;
+        }
+        int valueIndex = line.indexOf(" value ");
+        String name = (valueIndex < 0 ? line.substring(nameIndex + 6) : line.substring(nameIndex + 6, valueIndex)).trim();
+        String value = valueIndex < 0 ? "" : line.substring(valueIndex + 7).trim();
+
+        try {
+            switch (name.toLowerCase()) {
+                case "hash":
+                    hashSizeMb = Math.max(1, Math.min(MAX_HASH_SIZE_MB, Integer.parseInt(value)));
+                    releaseBot();
+                    break;
+                case "threads":
+                    threads = Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value)));
+                    if (bot != null) {
+                        bot.setThreads(threads);
+                        configureSearch();
+                    }
+                    break;
+                case "level":
+                    level = Math.max(1, Math.min(6, Integer.parseInt(value)));
+                    releaseBot();
+                    break;
+                case "bitbasepath":
+                    bitbases = value.isEmpty() || value.equals("<empty>") ? null : Bitbases.load(Paths.get(value));
+                    if (bot != null) {
+                        bot.setBitbases(bitbases);
+                    }
+                    if (bitbases != null) {
+                        out.println("info string " + bitbases.getBitbases().size() + " finales chargées");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException | IOException e) {
+            out.println("info string Option " + name + " ignorée: " + e.getMessage());
+        }
+    }
+
+    // position startpos|fen <fen> [moves <coup>...]
+    private void setPosition(String[] tokens) {
+        int index = 1;
+        Game newGame = new Game(false, true);
+        if (index < tokens.length && tokens[index].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for (index++; index < tokens.length && !tokens[index].equals("moves"); index++) {
+                fen.append(tokens[index]).append(' ');
+            }
+            newGame.loadPositionFromFEN(fen.toString());
+        } else if (index < tokens.length && tokens[index].equals("startpos")) {
+            index++;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            for (index++; index < tokens.length; index++) {
+                if (!newGame.makeMove(tokens[index])) {
+                    out.println("info string Coup illégal ignoré: " + tokens[index]);
+                    break;
+                }
+            }
+        }
+        game = newGame;
+    }
+
+    // go [depth D] [nodes N] [movetime T] [wtime W] [btime B] [winc I] [binc I] [movestogo M] [infinite] [ponder]
+    private void go(String[] tokens) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = 0;
+        long blackTime = 0;
+        boolean clock = false; // wtime ou btime reçu, même nul ou négatif
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+
+        for (int i = 1; i < tokens.length; i++) {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            try {
+                switch (tokens[i]) {
+                    case "depth":
+                        depth = Integer.parseInt(value);
+                        i++;
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(value);
+                        i++;
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(value);
+                        i++;
+                        break;
+                    case "wtime":
+                        whiteTime = Long.parseLong(value);
+                        clock = true;
+                        i++;
+                        break;
+                    case "btime":
+                        blackTime = Long.parseLong(value);
+                        clock = true;
+                        i++;
+                        break;
+                    case "winc":
+                        whiteIncrement = Long.parseLong(value);
+                        i++;
+                        break;
+                    case "binc":
+                        blackIncrement = Long.parseLong(value);
+                        i++;
+                        break;
+                    case "movestogo":
+                        movesToGo = Integer.parseInt(value);
+                        i++;
+                        break;
+                    case "infinite":
+                        infinite = true;
+                        break;
+                    case "ponder":
+                        ponder = true;
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                out.println("info string Valeur invalide pour " + tokens[i] + ": " + value);
+            }
+        }
+
+        SearchLimits limits = new SearchLimits(depth, nodes, moveTime, clock, whiteTime, blackTime,
+                whiteIncrement, blackIncrement, movesToGo);
+        // Réflexion sur le temps de l'adversaire : la recherche reçoit les vraies limites
+        // mais ne regarde pas la pendule avant le ponderhit
+        ponderLimits = ponder ? limits : null;
+        release = new CountDownLatch(infinite || ponder ? 1 : 0);
+
+        SimpleBot searchBot = getBot();
+        searchBot.setSearchLimits(limits);
+        if (searchBot.getSearch() != null) {
+            searchBot.getSearch().setPondering(ponder);
+        }
+        Game searchGame = game.copy();
+        CountDownLatch searchRelease = release;
+        searchTask = searchThread.submit(() -> {
+            String bestMove = searchBot.getBestMove(searchGame);
+            try {
+                searchRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.println(bestMoveLine(searchBot, searchGame, bestMove));
+        });
+    }
+
+    // bestmove <coup> [ponder <réponse attendue>], la réponse venant de la table du niveau 6
+    private static String bestMoveLine(SimpleBot bot, Game game, String bestMove) {
+        if (bestMove == null) {
+            return "bestmove 0000";
+        }
+        String line = "bestmove " + bestMove;
+        Searcher searcher = bot.getSearcher();
+        if (searcher != null && game.makeMove(bestMove)) {
+            int[] reply = searcher.getPrincipalVariation(game, 1);
+            if (reply.length > 0) {
+                line += " ponder " + Move.toString(reply[0]);
+            }
+        }
+        return line;
+    }
+
+    // L'adversaire a joué le coup attendu : la recherche continue avec les vraies limites de temps
+    private void ponderHit() {
+        if (searchTask == null || ponderLimits == null) {
+            return;
+        }
+        LazySmpSearch search = bot.getSearch();
+        if (search != null) {
+            search.ponderHit(ponderLimits.getMoveTime(game.colorToMove));
+        }
+        ponderLimits = null;
+        release.countDown();
+    }
+
+    // Arrête la recherche et attend que bestmove soit écrit. Le stop est répété tant que la tâche tourne,
+    // au cas où il arriverait avant que la recherche n'ait démarré.
+    private void stopSearch() {
+        if (searchTask == null) {
+            return;
+        }
+        release.countDown();
+        ponderLimits = null;
+        while (!searchTask.isDone()) {
+            LazySmpSearch search = bot.getSearch();
+            if (search != null) {
+                search.stop();
+            }
+            try {
+                searchTask.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // La recherche n'a pas encore vu le stop
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                out.println("info string Erreur de recherche: " + e.getCause());
+            }
+        }
+        searchTask = null;
+    }
+
+    private SimpleBot getBot() {
+        if (bot == null) {
+            bot = new SimpleBot(level, hashSizeMb);
+            bot.setThreads(threads);
+            bot.setBitbases(bitbases);
+            configureSearch();
+        }
+        return bot;
+    }
+
+    // Les lignes info ne sont écrites que par le thread principal de la recherche
+    private void configureSearch() {
+        if (bot.getSearch() != null) {
+            bot.getSearch().setInfoOutput(out);
+        }
+    }
+
+    private void releaseBot() {
+        if (bot != null) {
+            bot.shutdown();
+            bot = null;
+        }
+    }
+}